@@ -2,17 +2,24 @@ package pages;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.support.FindBy;
-import org.openqa.selenium.support.PageFactory;
+import utils.ElementCache;
+import utils.LocatorRanking;
 import utils.WaitHelper;
 
 /**
  * BasePage - Base class for all pages (Page Object Model)
  */
 public class BasePage {
+    private static final By CART_LINK = By.xpath("//a[contains(@class,'skip-link') and contains(@class,'skip-cart')]");
+    private static final By VIEW_CART_LINK = By.xpath(
+            "//a[contains(text(),'View Cart') or contains(text(),'Go to Cart') or contains(@href,'/checkout/cart')]");
+
     protected WebDriver driver;
     protected WaitHelper waitHelper;
     protected Actions actions;
@@ -64,10 +71,12 @@ public class BasePage {
 
     public BasePage(WebDriver driver) {
         this.driver = driver;
-        this.waitHelper = new WaitHelper(driver);
-        this.actions = new Actions(driver);
+        // Helpers are shared by all pages of the session
+        PageRegistry registry = PageRegistry.of(driver);
+        this.waitHelper = registry.getWaitHelper();
+        this.actions = registry.getActions();
         this.js = (JavascriptExecutor) driver;
-        PageFactory.initElements(driver, this);
+        ElementCache.initElements(driver, this);
     }
 
     public void clickAccountMenu() {
@@ -101,26 +110,29 @@ public class BasePage {
     public void clickMyWishList() {
         clickAccountMenu();
 
-        // Try to find wishlist link dynamically
+        // Try the dynamic locator and the FindBy element, whichever worked last time first
         try {
-            WebElement wishlistLink = driver.findElement(
-                By.xpath("//a[@title='My Wishlist' or contains(@href,'wishlist') or contains(text(),'Wishlist')]"));
-
-            waitHelper.waitForElementClickable(wishlistLink);
-            try {
-                wishlistLink.click();
-            } catch (Exception e) {
-                js.executeScript("arguments[0].click();", wishlistLink);
-            }
-        } catch (Exception e) {
-            System.out.println("Error clicking My Wishlist: " + e.getMessage());
-            // Fallback: try the FindBy element
-            try {
-                waitHelper.waitForElementClickable(myWishListLink);
-                js.executeScript("arguments[0].click();", myWishListLink);
-            } catch (Exception ex) {
-                System.out.println("Could not click wishlist link");
-            }
+            LocatorRanking.<Boolean>chain("header.myWishlist")
+                    .then("title-href-or-text", () -> {
+                        WebElement wishlistLink = driver.findElement(
+                            By.xpath("//a[@title='My Wishlist' or contains(@href,'wishlist') or contains(text(),'Wishlist')]"));
+
+                        waitHelper.waitForElementClickable(wishlistLink);
+                        try {
+                            wishlistLink.click();
+                        } catch (Exception e) {
+                            js.executeScript("arguments[0].click();", wishlistLink);
+                        }
+                        return true;
+                    })
+                    .then("title", () -> {
+                        waitHelper.waitForElementClickable(myWishListLink);
+                        js.executeScript("arguments[0].click();", myWishListLink);
+                        return true;
+                    })
+                    .run();
+        } catch (IllegalStateException e) {
+            System.out.println("Could not click wishlist link");
         }
 
         // Wait for wishlist page to load
@@ -150,8 +162,8 @@ public class BasePage {
             js.executeScript("arguments[0].click();", womenMenu);
         }
 
-        // Wait for page to load
-        waitHelper.waitForPageLoad();
+        // Wait for the listing page's network traffic to settle
+        waitHelper.waitForNetworkIdle();
     }
 
     public void hoverOverMenAndClickViewAll() {
@@ -176,8 +188,8 @@ public class BasePage {
             js.executeScript("arguments[0].click();", menMenu);
         }
 
-        // Wait for page to load
-        waitHelper.waitForPageLoad();
+        // Wait for the listing page's network traffic to settle
+        waitHelper.waitForNetworkIdle();
     }
 
     public void hoverOverSaleAndClickViewAll() {
@@ -202,56 +214,68 @@ public class BasePage {
             js.executeScript("arguments[0].click();", saleMenu);
         }
 
-        // Wait for page to load
-        waitHelper.waitForPageLoad();
+        // Wait for the listing page's network traffic to settle
+        waitHelper.waitForNetworkIdle();
+    }
+
+    /**
+     * Lets a header.viewCart alternative count as a success only once the cart page is there.
+     */
+    private boolean confirmCartOpened() {
+        if (!waitHelper.waitForUrlContains("checkout/cart")) {
+            throw new TimeoutException("Did not reach the cart page, still on " + driver.getCurrentUrl());
+        }
+        return true;
     }
 
     public void clickShoppingCart() {
+        // Open the mini-cart and click View Cart, or follow the header cart link's own href;
+        // typing the cart URL is the last resort
         try {
-            // First, click the shopping cart dropdown to open it
-            WebElement cartLink = driver.findElement(
-                By.xpath("//a[contains(@class,'skip-link') and contains(@class,'skip-cart')]"));
-
-            waitHelper.waitForElementClickable(cartLink);
-            System.out.println("Clicking shopping cart dropdown");
-
-            try {
-                cartLink.click();
-            } catch (Exception e) {
-                // Use JavaScript click as fallback
-                System.out.println("Using JavaScript to click shopping cart");
-                js.executeScript("arguments[0].click();", cartLink);
-            }
-
-            // Wait for dropdown to open
-            waitHelper.waitForElementPresent(By.xpath("//a[contains(text(),'View Cart') or contains(text(),'Go to Cart') or contains(@href,'/checkout/cart')]"));
-
-            // Now click "View Cart" or "Go to Cart" link inside the dropdown
-            try {
-                WebElement viewCartLink = driver.findElement(
-                    By.xpath("//a[contains(text(),'View Cart') or contains(text(),'Go to Cart') or contains(@href,'/checkout/cart')]"));
-
-                System.out.println("Clicking View Cart link");
-                waitHelper.waitForElementClickable(viewCartLink);
-                js.executeScript("arguments[0].click();", viewCartLink);
-            } catch (Exception e) {
-                System.out.println("Could not find View Cart link, trying direct navigation");
-                // If no View Cart link found, navigate directly to cart URL
-                String baseUrl = driver.getCurrentUrl();
-                if (baseUrl.contains("ecommerce.tealiumdemo.com")) {
-                    driver.get("https://ecommerce.tealiumdemo.com/checkout/cart/");
-                    System.out.println("Navigated directly to cart page");
-                }
-            }
-        } catch (Exception e) {
-            System.out.println("Error accessing shopping cart: " + e.getMessage());
-            // Try direct navigation as last resort
-            try {
-                driver.get("https://ecommerce.tealiumdemo.com/checkout/cart/");
-                System.out.println("Used direct navigation to cart page");
-            } catch (Exception ex) {
-                System.out.println("Could not navigate to cart page");
-            }
+            LocatorRanking.<Boolean>chain("header.viewCart")
+                    .then("minicart-view-cart", () -> {
+                        // First, click the shopping cart dropdown to open it
+                        WebElement cartLink = driver.findElement(CART_LINK);
+
+                        waitHelper.waitForElementClickable(cartLink);
+                        System.out.println("Clicking shopping cart dropdown");
+
+                        try {
+                            cartLink.click();
+                        } catch (Exception e) {
+                            // Use JavaScript click as fallback
+                            System.out.println("Using JavaScript to click shopping cart");
+                            js.executeScript("arguments[0].click();", cartLink);
+                        }
+
+                        // Wait for dropdown to open, then click "View Cart" or "Go to Cart" inside it
+                        if (!waitHelper.waitForElementPresent(VIEW_CART_LINK)) {
+                            throw new NoSuchElementException("View Cart link did not appear in the mini-cart");
+                        }
+                        WebElement viewCartLink = driver.findElement(VIEW_CART_LINK);
+
+                        System.out.println("Clicking View Cart link");
+                        waitHelper.waitForElementClickable(viewCartLink);
+                        js.executeScript("arguments[0].click();", viewCartLink);
+                        return confirmCartOpened();
+                    })
+                    .then("cart-link-href", () -> {
+                        String href = driver.findElement(CART_LINK).getDomProperty("href");
+                        if (href == null || !href.contains("checkout/cart")) {
+                            throw new NoSuchElementException("Header cart link does not point at the cart: " + href);
+                        }
+                        driver.get(href);
+                        System.out.println("Followed header cart link to " + href);
+                        return confirmCartOpened();
+                    })
+                    .lastResort("direct-url", () -> {
+                        driver.get(utils.ConfigReader.getBaseUrl() + "checkout/cart/");
+                        System.out.println("Navigated directly to cart page");
+                        return confirmCartOpened();
+                    })
+                    .run();
+        } catch (IllegalStateException e) {
+            System.out.println("Could not navigate to cart page");
         }
 
         // Wait for cart page to load
@@ -261,8 +285,19 @@ public class BasePage {
         System.out.println("After cart navigation, URL: " + driver.getCurrentUrl());
     }
 
+    /**
+     * Checks for the Log Out link in the header without waiting (guests also get a welcome message).
+     */
+    public boolean isSignedIn() {
+        return (Boolean) js.executeScript("return document.querySelector(\"a[title='Log Out']\") !== null;");
+    }
+
+    public boolean waitForSignedIn() {
+        return waitHelper.waitForElementPresent(By.xpath("//a[@title='Log Out']"));
+    }
+
     public boolean isUserLoggedIn() {
-        return waitHelper.isElementDisplayed(welcomeMessage);
+        return waitHelper.isElementDisplayedWithRetry(welcomeMessage);
     }
 
     public String getWelcomeMessageText() {
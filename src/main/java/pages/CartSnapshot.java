@@ -0,0 +1,149 @@
+package pages;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CartSnapshot - The shopping cart table and totals block as ShoppingCartPage read them in
+ * one script call.
+ *
+ * All amounts are exact cents (see Prices); Prices.NONE marks an amount the page did not show.
+ */
+public final class CartSnapshot {
+    private final boolean empty;
+    private final List<Row> rows;
+    private final Map<String, Long> totals;
+    private final long grandTotalCents;
+
+    /**
+     * One item row of the cart table.
+     */
+    public static final class Row {
+        private final String sku;
+        private final String name;
+        private final List<String> options;
+        private final int quantity;
+        private final long unitPriceCents;
+        private final long subtotalCents;
+
+        @SuppressWarnings("unchecked")
+        private Row(Map<String, Object> row) {
+            this.sku = (String) row.get("sku");
+            this.name = (String) row.get("name");
+            this.options = Collections.unmodifiableList(new ArrayList<>((List<String>) row.get("options")));
+            this.quantity = parseQuantity((String) row.get("qty"));
+            this.unitPriceCents = Prices.parseCents((String) row.get("unitPrice"));
+            this.subtotalCents = Prices.parseCents((String) row.get("subtotal"));
+        }
+
+        private static int parseQuantity(String qty) {
+            try {
+                return qty == null ? 0 : Integer.parseInt(qty.trim());
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        public String getSku() {
+            return sku;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Chosen options such as "Color: Black".
+         */
+        public List<String> getOptions() {
+            return options;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public long getUnitPriceCents() {
+            return unitPriceCents;
+        }
+
+        /**
+         * The row total (unit price times quantity, as the shop computed it).
+         */
+        public long getSubtotalCents() {
+            return subtotalCents;
+        }
+
+        @Override
+        public String toString() {
+            return name + " (" + sku + ") " + quantity + " x " + Prices.format(unitPriceCents) + " = " + Prices.format(subtotalCents);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    CartSnapshot(Map<String, Object> cart) {
+        this.empty = Boolean.TRUE.equals(cart.get("empty"));
+        List<Row> rowList = new ArrayList<>();
+        for (Map<String, Object> row : (List<Map<String, Object>>) cart.get("rows")) {
+            rowList.add(new Row(row));
+        }
+        this.rows = Collections.unmodifiableList(rowList);
+
+        Map<String, Long> totalMap = new LinkedHashMap<>();
+        for (Map<String, Object> total : (List<Map<String, Object>>) cart.get("totals")) {
+            totalMap.put((String) total.get("label"), Prices.parseCents((String) total.get("amount")));
+        }
+        this.totals = Collections.unmodifiableMap(totalMap);
+        this.grandTotalCents = Prices.parseCents((String) cart.get("grandTotal"));
+    }
+
+    /**
+     * True when the page shows the empty-cart message.
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    public List<Row> getRows() {
+        return rows;
+    }
+
+    public int getItemCount() {
+        return empty ? 0 : rows.size();
+    }
+
+    /**
+     * Sum of the row subtotals, or Prices.NONE if a row shows no subtotal.
+     */
+    public long getItemsSumCents() {
+        long sum = 0;
+        for (Row row : rows) {
+            if (row.getSubtotalCents() == Prices.NONE) {
+                return Prices.NONE;
+            }
+            sum += row.getSubtotalCents();
+        }
+        return sum;
+    }
+
+    /**
+     * The lines of the totals block (subtotal, shipping, tax, ...) by label, in page order.
+     */
+    public Map<String, Long> getTotals() {
+        return totals;
+    }
+
+    public long getGrandTotalCents() {
+        return grandTotalCents;
+    }
+
+    @Override
+    public String toString() {
+        return empty ? "CartSnapshot{empty}"
+                : "CartSnapshot{" + rows.size() + " rows, items " + Prices.format(getItemsSumCents())
+                + ", grand total " + Prices.format(grandTotalCents) + "}";
+    }
+}
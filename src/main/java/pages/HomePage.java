@@ -24,7 +24,7 @@ public class HomePage extends BasePage {
     }
 
     public boolean isHomePageLoaded() {
-        return waitHelper.isElementDisplayed(logo);
+        return waitHelper.isElementDisplayedWithRetry(logo);
     }
 
     public String getPageTitle() {
@@ -58,7 +58,7 @@ public class LoginPage extends BasePage {
     }
 
     public boolean isLoginPageLoaded() {
-        return waitHelper.isElementDisplayed(loginHeading);
+        return waitHelper.isElementDisplayedWithRetry(loginHeading);
     }
 
     public boolean isErrorMessageDisplayed() {
@@ -0,0 +1,80 @@
+package pages;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.interactions.Actions;
+import utils.WaitHelper;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PageRegistry - One set of page objects and helpers per browser session.
+ *
+ * get() builds each page object the first time it is asked for and hands out the same
+ * instance afterwards, so the PageFactory reflection pass runs once per page and session.
+ * All pages of a session share one WaitHelper and one Actions. Element proxies look elements
+ * up again as the page changes. ProductListPage also caches its last grid snapshot; the cache
+ * is tagged with the DomEpoch marker of the page it was read from, whose id is new for every
+ * document, so a test that gets the same instance (a session parked for dependsOnMethods)
+ * reads the grid again once it has navigated. Without a DomEpoch the snapshot is never reused.
+ *
+ * BaseTest releases the registry when the session is quit or returned to the pool, so a pooled
+ * browser starts the next test with new page objects.
+ */
+public class PageRegistry {
+    private static final Map<WebDriver, PageRegistry> registries = new ConcurrentHashMap<>();
+
+    private final WebDriver driver;
+    private final WaitHelper waitHelper;
+    private final Actions actions;
+    private final Map<Class<?>, BasePage> pages = new ConcurrentHashMap<>();
+
+    private PageRegistry(WebDriver driver) {
+        this.driver = driver;
+        this.waitHelper = new WaitHelper(driver);
+        this.actions = new Actions(driver);
+    }
+
+    public static PageRegistry of(WebDriver driver) {
+        return registries.computeIfAbsent(driver, PageRegistry::new);
+    }
+
+    /**
+     * Drops the session's page objects and helpers.
+     */
+    public static void release(WebDriver driver) {
+        if (driver != null) {
+            registries.remove(driver);
+        }
+    }
+
+    public static void releaseAll() {
+        registries.clear();
+    }
+
+    /**
+     * The session's instance of the page class, created on first use through its
+     * (WebDriver) constructor.
+     */
+    public <T extends BasePage> T get(Class<T> pageClass) {
+        return pageClass.cast(pages.computeIfAbsent(pageClass, type -> {
+            try {
+                return pageClass.getConstructor(WebDriver.class).newInstance(driver);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException(pageClass.getName() + " needs a public (WebDriver) constructor", e);
+            }
+        }));
+    }
+
+    WaitHelper getWaitHelper() {
+        return waitHelper;
+    }
+
+    Actions getActions() {
+        return actions;
+    }
+}
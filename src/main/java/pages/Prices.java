@@ -0,0 +1,57 @@
+package pages;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Prices - Exact conversion between the shop's price texts and whole cents.
+ *
+ * Page objects keep prices as long cents so that sums and comparisons have no
+ * floating point error; NONE marks a missing or unreadable price.
+ */
+public final class Prices {
+    public static final long NONE = Long.MIN_VALUE;
+
+    private Prices() {
+    }
+
+    /**
+     * "$1,234.50" -> 123450; NONE for null, empty or unreadable text.
+     */
+    public static long parseCents(String text) {
+        if (text == null) {
+            return NONE;
+        }
+        String amount = text.replace("$", "").replace(",", "").trim();
+        if (amount.isEmpty()) {
+            return NONE;
+        }
+        try {
+            return new BigDecimal(amount).setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            System.out.println("Failed to parse price: " + text);
+            return NONE;
+        }
+    }
+
+    /**
+     * 9999.99 -> 999999, for limits given in dollars.
+     */
+    public static long toCents(double amount) {
+        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    /**
+     * 123450 -> "$1234.50".
+     */
+    public static String format(long cents) {
+        if (cents == NONE) {
+            return "n/a";
+        }
+        return (cents < 0 ? "-$" : "$") + BigDecimal.valueOf(Math.abs(cents), 2).toPlainString();
+    }
+
+    static Double toDouble(long cents) {
+        return cents == NONE ? null : cents / 100.0;
+    }
+}
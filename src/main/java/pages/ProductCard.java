@@ -0,0 +1,154 @@
+package pages;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ProductCard - What one product of the listing grid showed when ProductListPage took its
+ * snapshot: name, link, prices, colour swatches and the computed styles the tests check.
+ *
+ * Prices are parsed to exact cents; the Double getters return null when the card has no
+ * such price. Styles are keyed "element.property", e.g. "oldPrice.text-decoration-line";
+ * the elements are card, oldPrice and finalPrice.
+ */
+public final class ProductCard {
+    private final int index;
+    private final String name;
+    private final String url;
+    private final String productId;
+    private final long regularCents;
+    private final long specialCents;
+    private final long oldCents;
+    private final int priceCount;
+    private final List<Swatch> swatches;
+    private final Map<String, String> styles;
+
+    /**
+     * One colour swatch of the card.
+     */
+    public static final class Swatch {
+        private final String label;
+        private final boolean selected;
+        private final boolean filterMatch;
+
+        private Swatch(String label, boolean selected, boolean filterMatch) {
+            this.label = label;
+            this.selected = selected;
+            this.filterMatch = filterMatch;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public boolean isSelected() {
+            return selected;
+        }
+
+        /**
+         * Marked by the layered navigation as the colour the grid is filtered by.
+         */
+        public boolean isFilterMatch() {
+            return filterMatch;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    ProductCard(int index, Map<String, Object> card) {
+        this.index = index;
+        this.name = (String) card.get("name");
+        this.url = (String) card.get("url");
+        this.productId = (String) card.get("productId");
+        this.regularCents = Prices.parseCents((String) card.get("regularPrice"));
+        this.specialCents = Prices.parseCents((String) card.get("specialPrice"));
+        this.oldCents = Prices.parseCents((String) card.get("oldPrice"));
+        this.priceCount = ((Number) card.get("priceCount")).intValue();
+
+        List<Swatch> swatchList = new ArrayList<>();
+        for (Map<String, Object> swatch : (List<Map<String, Object>>) card.get("swatches")) {
+            swatchList.add(new Swatch((String) swatch.get("label"),
+                    Boolean.TRUE.equals(swatch.get("selected")), Boolean.TRUE.equals(swatch.get("filterMatch"))));
+        }
+        this.swatches = Collections.unmodifiableList(swatchList);
+
+        Map<String, String> styleMap = new HashMap<>();
+        for (Map.Entry<String, Object> style : ((Map<String, Object>) card.get("styles")).entrySet()) {
+            styleMap.put(style.getKey(), String.valueOf(style.getValue()));
+        }
+        this.styles = Collections.unmodifiableMap(styleMap);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * The product id from the price element (product-price-123 -> 123), or null.
+     */
+    public String getProductId() {
+        return productId;
+    }
+
+    public Double getRegularPrice() {
+        return Prices.toDouble(regularCents);
+    }
+
+    public Double getSpecialPrice() {
+        return Prices.toDouble(specialCents);
+    }
+
+    /**
+     * The struck-out price of a sale product.
+     */
+    public Double getOldPrice() {
+        return Prices.toDouble(oldCents);
+    }
+
+    /**
+     * The price the customer pays: the special price if there is one, else the regular price.
+     */
+    public Double getFinalPrice() {
+        return Prices.toDouble(getFinalPriceCents());
+    }
+
+    /**
+     * getFinalPrice() in cents, Prices.NONE when the card shows no price.
+     */
+    public long getFinalPriceCents() {
+        return specialCents != Prices.NONE ? specialCents : regularCents;
+    }
+
+    /**
+     * Number of price elements on the card; more than one means a sale product.
+     */
+    public int getPriceCount() {
+        return priceCount;
+    }
+
+    public List<Swatch> getSwatches() {
+        return swatches;
+    }
+
+    /**
+     * The computed style, or null when the element is not on the card.
+     */
+    public String getStyle(String element, String property) {
+        return styles.get(element + "." + property);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductCard{" + index + ", " + name + ", " + getFinalPrice() + ", " + swatches.size() + " swatches}";
+    }
+}
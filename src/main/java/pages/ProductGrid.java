@@ -0,0 +1,184 @@
+package pages;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ProductGrid - Immutable, array-backed view of a grid snapshot for whole-grid checks.
+ *
+ * Final prices are kept as long cents in one array, swatch counts as per-product offsets.
+ * Every check is a single pass over the arrays, so verifying a limit=all grid with hundreds
+ * of products costs no more than reading it. Products without a price hold Prices.NONE.
+ * The checks accept what the per-product checks of ProductListPage accept.
+ */
+public final class ProductGrid {
+    private final long[] priceCents;
+    private final String[] names;
+    private final String[] productIds;
+    // Product i has swatchStart[i + 1] - swatchStart[i] colour swatches
+    private final int[] swatchStart;
+    private final Map<String, Integer> nameIndex = new HashMap<>();
+    private final Map<String, Integer> productIdIndex = new HashMap<>();
+
+    private ProductGrid(List<ProductCard> cards) {
+        int size = cards.size();
+        priceCents = new long[size];
+        names = new String[size];
+        productIds = new String[size];
+        swatchStart = new int[size + 1];
+
+        int swatch = 0;
+        for (int i = 0; i < size; i++) {
+            ProductCard card = cards.get(i);
+            priceCents[i] = card.getFinalPriceCents();
+            names[i] = card.getName();
+            productIds[i] = card.getProductId();
+            if (names[i] != null) {
+                nameIndex.putIfAbsent(names[i].toLowerCase(Locale.ROOT), i);
+            }
+            if (productIds[i] != null) {
+                productIdIndex.putIfAbsent(productIds[i], i);
+            }
+
+            swatchStart[i] = swatch;
+            swatch += card.getSwatches().size();
+        }
+        swatchStart[size] = swatch;
+    }
+
+    public static ProductGrid of(List<ProductCard> cards) {
+        return new ProductGrid(cards);
+    }
+
+    public int size() {
+        return priceCents.length;
+    }
+
+    /**
+     * Final price of the product in cents, Prices.NONE if it shows none.
+     */
+    public long priceCents(int index) {
+        return priceCents[index];
+    }
+
+    public String name(int index) {
+        return names[index];
+    }
+
+    /**
+     * Index of the first product with this name (case-insensitive), or -1.
+     */
+    public int indexOfName(String name) {
+        Integer index = name == null ? null : nameIndex.get(name.toLowerCase(Locale.ROOT));
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Index of the product with this id (the listing shows no SKUs; see ProductCard.getProductId), or -1.
+     */
+    public int indexOfProductId(String productId) {
+        Integer index = productIdIndex.get(productId);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * True if the prices never decrease from one product to the next. Products without a
+     * price are skipped.
+     */
+    public boolean isSortedAscending() {
+        return firstUnsortedIndex() < 0;
+    }
+
+    /**
+     * Index of the first priced product that is cheaper than the priced product before it, or -1.
+     */
+    public int firstUnsortedIndex() {
+        long previous = Long.MIN_VALUE;
+        for (int i = 0; i < priceCents.length; i++) {
+            if (priceCents[i] == Prices.NONE) {
+                continue;
+            }
+            if (priceCents[i] < previous) {
+                return i;
+            }
+            previous = priceCents[i];
+        }
+        return -1;
+    }
+
+    /**
+     * True if every product has a price between min and max (see isWithin).
+     */
+    public boolean allWithin(double min, double max) {
+        return indexOutside(min, max) < 0;
+    }
+
+    /**
+     * True if the product's price is between min and max (in dollars), allowing one cent
+     * either side for the filter's edge cases. A product without a price counts as $0.00.
+     */
+    public boolean isWithin(int index, double min, double max) {
+        long price = priceCents[index] == Prices.NONE ? 0 : priceCents[index];
+        return price >= Prices.toCents(min) - 1 && price <= Prices.toCents(max) + 1;
+    }
+
+    /**
+     * Index of the first product whose price is not within [min, max] (see isWithin), or -1.
+     */
+    public int indexOutside(double min, double max) {
+        for (int i = 0; i < priceCents.length; i++) {
+            if (!isWithin(i, min, max)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Index of the cheapest product (the first one on ties), or -1 if no product has a price.
+     */
+    public int argmin() {
+        int best = -1;
+        for (int i = 0; i < priceCents.length; i++) {
+            if (priceCents[i] != Prices.NONE && (best < 0 || priceCents[i] < priceCents[best])) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Number of products of a grid filtered by the colour that show a colour swatch. As in
+     * ProductListPage.isProductColorBorderedInBlue, the layered navigation has already
+     * filtered the grid, so a product passes with any swatch, whether or not it is marked
+     * as filter match or selected.
+     */
+    public int countMatchingSwatch(String color) {
+        int count = 0;
+        for (int i = 0; i < priceCents.length; i++) {
+            if (swatchStart[i + 1] > swatchStart[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Index of the first product without a colour swatch (see countMatchingSwatch), or -1.
+     */
+    public int indexWithoutSwatch(String color) {
+        for (int i = 0; i < priceCents.length; i++) {
+            if (swatchStart[i + 1] == swatchStart[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductGrid{" + size() + " products, " + swatchStart[size()] + " swatches}";
+    }
+}
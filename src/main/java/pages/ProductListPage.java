@@ -1,25 +1,44 @@
 package pages;
 
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 import org.openqa.selenium.support.ui.Select;
+import utils.CompositeCondition;
+import utils.DomEpoch;
+import utils.ImplicitWaitMonitor;
+import utils.LocatorRanking;
+import utils.StyleAudit;
+import utils.StyleDiff;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * ProductListPage - Tealium E-commerce Product Listing Page (Women, Men, Sale)
  */
 public class ProductListPage extends BasePage {
 
+    private static final String PRODUCT_ITEMS_XPATH = "//ul[contains(@class,'products-grid')]//li[contains(@class,'item')]";
+    private static final By PRODUCT_ITEMS = By.xpath(PRODUCT_ITEMS_XPATH);
+    private static final long HOVER_TRANSITION_TIMEOUT_MILLIS = 1000;
+    // The shop's blue final prices: shades with little red and a strong blue channel
+    private static final String BRAND_BLUE =
+            "blue|rgba?\\(\\s*(0,\\s*0,\\s*255|\\d{1,2}\\s*,\\s*\\d{1,3}\\s*,\\s*(1[5-9]\\d|2[0-4]\\d))";
+    // A sale card shows its old price either in p.old-price or after a "Regular Price:" label
+    private static final By OLD_PRICE = By.xpath(".//p[@class='old-price']//span[@class='price'] | "
+            + ".//span[@class='price-label' and contains(text(),'Regular')]/following-sibling::span[@class='price']");
+    private static final By PRICE_OPTIONS = By.xpath("//dl[@id='narrow-by-list']//dt[contains(text(),'Price')]/following-sibling::dd[1]//a");
+    private static final By PRICE_OPTION_LINKS = By.xpath("//dl[@id='narrow-by-list']//dt[contains(text(),'Price')]/following-sibling::dd[1]//li//a[contains(@href,'price')]");
+
     @FindBy(xpath = "//select[@title='Sort By']")
     private WebElement sortByDropdown;
 
-    @FindBy(xpath = "//ul[contains(@class,'products-grid')]//li[contains(@class,'item')]//h2[@class='product-name']/a")
-    private List<WebElement> productNames;
-
     @FindBy(xpath = "//ul[contains(@class,'products-grid')]//li[contains(@class,'item')]")
     private List<WebElement> productItems;
 
@@ -35,10 +54,93 @@ public class ProductListPage extends BasePage {
     @FindBy(xpath = "//dl[@id='narrow-by-list']//dt[contains(text(),'Price')]")
     private WebElement priceFilterHeader;
 
+    // Reads every product card of the grid in one call; see ProductCard for the fields
+    private static final String GRID_SCRIPT =
+            "var r = document.evaluate(arguments[0], document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null), cards = [];"
+            + "function text(el) { return el ? el.textContent.replace(/\\s+/g, ' ').trim() : null; }"
+            + "function styles(out, key, el, props) {"
+            + "  if (!el) { return; }"
+            + "  var s = getComputedStyle(el);"
+            + "  props.forEach(function (p) { out[key + '.' + p] = s.getPropertyValue(p); });"
+            + "}"
+            + "for (var i = 0; i < r.snapshotLength; i++) {"
+            + "  var item = r.snapshotItem(i), link = item.querySelector('h2.product-name a');"
+            + "  var special = item.querySelector('p.special-price span.price');"
+            + "  var regular = item.querySelector('span.regular-price span.price, p.price-box span.price, span[id*=\"product-price\"]');"
+            + "  var old = item.querySelector('p.old-price span.price');"
+            + "  if (!old) {"
+            + "    Array.prototype.forEach.call(item.querySelectorAll('span.price-label'), function (label) {"
+            + "      var next = label.nextElementSibling;"
+            + "      if (!old && label.textContent.indexOf('Regular') >= 0 && next && next.matches('span.price')) { old = next; }"
+            + "    });"
+            + "  }"
+            + "  var final = special || item.querySelector('span[id*=\"product-price\"]');"
+            + "  var idMatch = final && final.id ? final.id.match(/(\\d+)$/) : null;"
+            + "  var swatches = Array.prototype.map.call(item.querySelectorAll('ul.configurable-swatch-list li'), function (li) {"
+            + "    var img = li.querySelector('img');"
+            + "    return {label: img ? (img.alt || img.title) : (li.title || text(li)),"
+            + "            selected: li.classList.contains('selected'), filterMatch: li.classList.contains('filter-match')};"
+            + "  });"
+            + "  var css = {};"
+            + "  styles(css, 'card', item, ['opacity', 'transform', 'box-shadow']);"
+            + "  styles(css, 'oldPrice', old, ['color', 'text-decoration', 'text-decoration-line']);"
+            + "  styles(css, 'finalPrice', final, ['color', 'text-decoration', 'text-decoration-line']);"
+            + "  cards.push({name: link ? link.innerText.trim() : null, url: link ? link.href : null,"
+            + "    productId: idMatch ? idMatch[1] : null, regularPrice: text(regular), specialPrice: text(special),"
+            + "    oldPrice: text(old), priceCount: item.querySelectorAll('span.price').length,"
+            + "    swatches: swatches, styles: css});"
+            + "}"
+            + "return cards;";
+
+    private List<ProductCard> snapshot;
+    private String snapshotMarker;
+    private ProductGrid grid;
+    private List<ProductCard> gridSource;
+
     public ProductListPage(WebDriver driver) {
         super(driver);
     }
 
+    /**
+     * Every product card of the grid, read in a single script call.
+     *
+     * The snapshot is reused while the page stays the same (see DomEpoch), so index loops
+     * over the grid cost no further round trips; without a DomEpoch each call reads the
+     * grid again.
+     */
+    public List<ProductCard> getGridSnapshot() {
+        DomEpoch epoch = DomEpoch.of(driver);
+        String marker = epoch != null ? epoch.current() : null;
+        if (snapshot != null && marker != null && marker.equals(snapshotMarker)) {
+            return snapshot;
+        }
+
+        waitHelper.waitForElementPresent(PRODUCT_ITEMS);
+        // Through the undecorated driver: reading the grid does not change the page
+        JavascriptExecutor reader = (JavascriptExecutor) ImplicitWaitMonitor.unwrap(driver);
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> rows = (List<Map<String, Object>>) reader.executeScript(GRID_SCRIPT, PRODUCT_ITEMS_XPATH);
+        List<ProductCard> cards = new ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            cards.add(new ProductCard(cards.size(), row));
+        }
+        snapshot = Collections.unmodifiableList(cards);
+        snapshotMarker = marker;
+        return snapshot;
+    }
+
+    /**
+     * The grid snapshot as a ProductGrid, for checks over all products at once.
+     */
+    public ProductGrid getGrid() {
+        List<ProductCard> cards = getGridSnapshot();
+        if (grid == null || gridSource != cards) {
+            grid = ProductGrid.of(cards);
+            gridSource = cards;
+        }
+        return grid;
+    }
+
     public void selectSortBy(String sortOption) {
         waitHelper.waitForElementVisible(sortByDropdown);
         Select select = new Select(sortByDropdown);
@@ -47,51 +149,42 @@ public class ProductListPage extends BasePage {
 
     public List<String> getProductNames() {
         List<String> names = new ArrayList<>();
-        for (WebElement product : productNames) {
-            names.add(product.getText());
+        for (ProductCard card : getGridSnapshot()) {
+            if (card.getName() != null) {
+                names.add(card.getName());
+            }
         }
         return names;
     }
 
     public List<Double> getProductPrices() {
         List<Double> prices = new ArrayList<>();
-        for (WebElement product : productItems) {
-            try {
-                // Try to get special price first (for sale items)
-                List<WebElement> specialPrices = product.findElements(
-                    By.xpath(".//p[@class='special-price']//span[@class='price']"));
-
-                if (!specialPrices.isEmpty()) {
-                    // Use special price if available
-                    String priceText = specialPrices.get(0).getText()
-                        .replace("$", "").replace(",", "").trim();
-                    prices.add(Double.parseDouble(priceText));
-                } else {
-                    // Otherwise use regular price
-                    List<WebElement> regularPrices = product.findElements(
-                        By.xpath(".//span[@class='regular-price']//span[@class='price'] | " +
-                                ".//p[@class='price-box']//span[@class='price']"));
-
-                    if (!regularPrices.isEmpty()) {
-                        String priceText = regularPrices.get(0).getText()
-                            .replace("$", "").replace(",", "").trim();
-                        prices.add(Double.parseDouble(priceText));
-                    }
-                }
-            } catch (Exception e) {
-                // If price extraction fails for this product, skip it
-                System.out.println("Failed to extract price for product: " + e.getMessage());
+        for (ProductCard card : getGridSnapshot()) {
+            // Special price for sale items, otherwise the regular price
+            if (card.getFinalPrice() != null) {
+                prices.add(card.getFinalPrice());
+            } else {
+                System.out.println("Failed to extract price for product: " + card);
             }
         }
         return prices;
     }
 
     public int getProductCount() {
+        return getGridSnapshot().size();
+    }
+
+    /**
+     * Waits for the product grid to render and returns its size. Needed because the
+     * implicit wait is off in explicit-only mode.
+     */
+    private int waitForProducts() {
+        waitHelper.waitForElementPresent(PRODUCT_ITEMS);
         return productItems.size();
     }
 
     public void hoverOverProduct(int index) {
-        if (index < productItems.size()) {
+        if (index < waitForProducts()) {
             waitHelper.waitForElementVisible(productItems.get(index));
             scrollToElement(productItems.get(index));
             actions.moveToElement(productItems.get(index)).perform();
@@ -99,7 +192,7 @@ public class ProductListPage extends BasePage {
     }
 
     public String getProductStyleAttribute(int index, String attribute) {
-        if (index < productItems.size()) {
+        if (index < waitForProducts()) {
             return productItems.get(index).getCssValue(attribute);
         }
         return "";
@@ -110,7 +203,7 @@ public class ProductListPage extends BasePage {
      * This could be an "actions" div or "hover-box" that appears on hover
      */
     public WebElement getProductHoverElement(int index) {
-        if (index < productItems.size()) {
+        if (index < waitForProducts()) {
             WebElement product = productItems.get(index);
             try {
                 // Try to find the actions/hover element within the product
@@ -141,7 +234,7 @@ public class ProductListPage extends BasePage {
      * Get product image element to check for hover effects
      */
     public WebElement getProductImage(int index) {
-        if (index < productItems.size()) {
+        if (index < waitForProducts()) {
             WebElement product = productItems.get(index);
             try {
                 return product.findElement(By.xpath(".//img[@class='product-image-photo']"));
@@ -153,49 +246,63 @@ public class ProductListPage extends BasePage {
     }
 
     /**
-     * Check if product has hover effect by comparing opacity or transform before/after hover
-     * Returns true if any hover effect is detected
+     * The styles that make up a product's hover effect: opacity, transform and shadow of the
+     * card, and the visibility of its actions/add-to-links block.
+     */
+    private StyleDiff hoverStyles() {
+        return StyleDiff.on(driver)
+                .properties("opacity", "transform", "box-shadow")
+                .part("actions", "div[class*='actions'], ul[class*='add-to-links']", "display", "visibility", "opacity");
+    }
+
+    /**
+     * Check if product has hover effect by moving the mouse onto it and comparing the card's
+     * styles before and after. Returns true if any hover effect is detected
      */
     public boolean hasHoverEffect(int index) {
-        if (index >= productItems.size()) {
+        if (index >= waitForProducts()) {
             return false;
         }
 
         WebElement product = productItems.get(index);
+        scrollToElement(product);
+        StyleDiff.Result diff = hoverStyles().target(product).pointerHover(actions, HOVER_TRANSITION_TIMEOUT_MILLIS);
 
-        // Get initial state
-        String initialOpacity = product.getCssValue("opacity");
-        String initialTransform = product.getCssValue("transform");
-        String initialBoxShadow = product.getCssValue("box-shadow");
-
-        // Get hover element visibility before hover
-        boolean hoverElementVisibleBefore = isHoverElementDisplayed(index);
-
-        // Perform hover
-        hoverOverProduct(index);
-
-        // Wait a moment for CSS transition
-        waitHelper.waitShort(300);
-
-        // Get state after hover
-        String afterOpacity = product.getCssValue("opacity");
-        String afterTransform = product.getCssValue("transform");
-        String afterBoxShadow = product.getCssValue("box-shadow");
-        boolean hoverElementVisibleAfter = isHoverElementDisplayed(index);
-
-        // Check if any style changed or hover element became visible
-        boolean opacityChanged = !initialOpacity.equals(afterOpacity);
-        boolean transformChanged = !initialTransform.equals(afterTransform);
-        boolean boxShadowChanged = !initialBoxShadow.equals(afterBoxShadow);
-        boolean hoverElementAppeared = !hoverElementVisibleBefore && hoverElementVisibleAfter;
+        System.out.println("Hover effect check for product " + index + " (" + diff + "):");
+        for (StyleDiff.Change change : diff.getChanges(0)) {
+            System.out.println("  " + change);
+        }
+        return diff.changed(0);
+    }
 
-        System.out.println("Hover effect check for product " + index + ":");
-        System.out.println("  Opacity changed: " + opacityChanged + " (" + initialOpacity + " -> " + afterOpacity + ")");
-        System.out.println("  Transform changed: " + transformChanged);
-        System.out.println("  Box shadow changed: " + boxShadowChanged);
-        System.out.println("  Hover element appeared: " + hoverElementAppeared);
+    /**
+     * Hover styles of every product of the grid, compared in one script call with the page's
+     * :hover rules forced onto all cards at once.
+     */
+    public StyleDiff.Result getGridHoverDiff() {
+        waitForProducts();
+        StyleDiff.Result diff = hoverStyles().targets(PRODUCT_ITEMS).forceHover(HOVER_TRANSITION_TIMEOUT_MILLIS);
+        System.out.println("Grid hover check: " + diff);
+        return diff;
+    }
 
-        return opacityChanged || transformChanged || boxShadowChanged || hoverElementAppeared;
+    /**
+     * Index of the first product without a hover effect, or -1 if every product has one.
+     * Falls back to hovering each product with the mouse when the page's stylesheets
+     * could not be read.
+     */
+    public int firstProductWithoutHoverEffect() {
+        StyleDiff.Result diff = getGridHoverDiff();
+        if (diff.getForcedRules() > 0) {
+            return diff.firstUnchanged();
+        }
+        System.out.println("No :hover rules could be forced, hovering products one by one");
+        for (int i = 0; i < diff.size(); i++) {
+            if (!hasHoverEffect(i)) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     public void clickColorFilter(String color) {
@@ -254,25 +361,22 @@ public class ProductListPage extends BasePage {
                     }
                 }
 
-                // Wait for page to reload after color filter
-                waitHelper.waitForUrlToChange(currentUrl);
-                String newUrl = driver.getCurrentUrl();
-                System.out.println("Color filter applied, new URL: " + newUrl);
+                // Wait for the filtered page: new URL, loaded, product grid present and visible
+                CompositeCondition.Result reload = waitHelper.waitForAll(new CompositeCondition()
+                        .urlChangedFrom(currentUrl)
+                        .documentReady()
+                        .present(PRODUCT_ITEMS)
+                        .visible(PRODUCT_ITEMS));
+                String newUrl = reload.getUrl() != null ? reload.getUrl() : driver.getCurrentUrl();
+                System.out.println("Color filter applied, new URL: " + newUrl + " (" + reload + ")");
 
                 if (newUrl.equals(currentUrl)) {
                     System.out.println("WARNING: URL did not change after color filter click!");
                 }
 
-                // Wait for products to reload
-                waitHelper.waitForPageLoad();
-                waitHelper.waitForElementPresent(By.xpath("//ul[contains(@class,'products-grid')]//li[contains(@class,'item')]"));
-
-                // Wait for product grid to be visible
-                List<WebElement> products = driver.findElements(
-                    By.xpath("//ul[contains(@class,'products-grid')]//li[contains(@class,'item')]"));
-                if (!products.isEmpty()) {
-                    waitHelper.waitForElementVisible(products.get(0));
-                    System.out.println("Products reloaded after color filter, found " + products.size() + " products");
+                long productCount = reload.getMatchCount(2);
+                if (productCount > 0) {
+                    System.out.println("Products reloaded after color filter, found " + productCount + " products");
                 } else {
                     System.out.println("WARNING: No products found after color filter!");
                 }
@@ -295,86 +399,89 @@ public class ProductListPage extends BasePage {
 
         if (!isPriceFilterExpanded()) {
             priceFilterHeader.click();
-            waitHelper.waitForElementPresent(By.xpath("//dl[@id='narrow-by-list']//dt[contains(text(),'Price')]/following-sibling::dd[1]//a"));
-        }
-
-        // Find price filter options dynamically - use [1] to get only the immediate next dd element
-        List<WebElement> priceOptions = driver.findElements(
-            By.xpath("//dl[@id='narrow-by-list']//dt[contains(text(),'Price')]/following-sibling::dd[1]//a"));
-
-        System.out.println("Found " + priceOptions.size() + " price filter options");
-
-        if (index < priceOptions.size()) {
-            WebElement priceOption = priceOptions.get(index);
-            String priceText = priceOption.getText();
-            String href = priceOption.getAttribute("href");
-            System.out.println("Clicking price filter: " + priceText);
-            System.out.println("Price filter href: " + href);
-
-            // Validate href is not empty or homepage
-            if (href == null || href.isEmpty() || href.equals("https://ecommerce.tealiumdemo.com/") || !href.contains("price")) {
-                System.out.println("ERROR: Invalid price filter href, attempting to re-find element");
-                // Try to find price filter options again with more specific xpath
-                priceOptions = driver.findElements(
-                    By.xpath("//dl[@id='narrow-by-list']//dt[contains(text(),'Price')]/following-sibling::dd[1]//li//a[contains(@href,'price')]"));
-                if (index < priceOptions.size()) {
-                    priceOption = priceOptions.get(index);
-                    href = priceOption.getAttribute("href");
-                    System.out.println("Re-found price filter href: " + href);
-                } else {
-                    System.out.println("Could not find valid price filter link");
-                    return;
-                }
-            }
+            waitHelper.waitForElementPresent(PRICE_OPTIONS);
+        }
 
-            // Store the target URL before any navigation
-            final String targetUrl = href;
-            System.out.println("Target URL for navigation: " + targetUrl);
+        // The links of the immediate next dd, or when those carry no usable href, the links in
+        // its list items that point at a price filter; the ranking tries last run's winner first
+        WebElement priceOption;
+        try {
+            priceOption = LocatorRanking.<WebElement>chain("productList.priceOption")
+                    .then("dd-links", () -> findPriceOption(PRICE_OPTIONS, index))
+                    .then("dd-price-links", () -> findPriceOption(PRICE_OPTION_LINKS, index))
+                    .run();
+        } catch (IllegalStateException e) {
+            System.out.println("Could not find valid price filter link");
+            return;
+        }
 
-            // Get current URL and body class
-            String currentUrl = driver.getCurrentUrl();
-            String currentBodyClass = driver.findElement(By.tagName("body")).getAttribute("class");
-            System.out.println("Current URL before price filter: " + currentUrl);
-            System.out.println("Current body class: " + currentBodyClass);
+        String priceText = priceOption.getText();
+        String href = priceOption.getAttribute("href");
+        System.out.println("Clicking price filter: " + priceText);
+        System.out.println("Price filter href: " + href);
 
-            // Click the filter using JavaScript for reliability
-            waitHelper.waitForElementClickable(priceOption);
-            scrollToElement(priceOption);
-            try {
-                js.executeScript("arguments[0].click();", priceOption);
-                System.out.println("Clicked price filter using JavaScript");
-            } catch (Exception e) {
-                System.out.println("JavaScript click failed, using driver.get(): " + e.getMessage());
-                driver.get(targetUrl);
-            }
+        // Store the target URL before any navigation
+        final String targetUrl = href;
+        System.out.println("Target URL for navigation: " + targetUrl);
 
-            // Wait for page to navigate - check both URL change AND body class
-            boolean urlChanged = waitHelper.waitForUrlToChange(currentUrl);
-            String newUrl = driver.getCurrentUrl();
+        // Get current URL and body class
+        String currentUrl = driver.getCurrentUrl();
+        String currentBodyClass = driver.findElement(By.tagName("body")).getAttribute("class");
+        System.out.println("Current URL before price filter: " + currentUrl);
+        System.out.println("Current body class: " + currentBodyClass);
 
-            if (urlChanged && (newUrl.contains("price=") || newUrl.contains("men.html"))) {
-                System.out.println("URL successfully changed to: " + newUrl);
-            } else {
-                System.out.println("WARNING: URL did not change as expected");
-                System.out.println("Final URL: " + driver.getCurrentUrl());
-            }
+        // Click the filter using JavaScript for reliability
+        waitHelper.waitForElementClickable(priceOption);
+        scrollToElement(priceOption);
+        try {
+            js.executeScript("arguments[0].click();", priceOption);
+            System.out.println("Clicked price filter using JavaScript");
+        } catch (Exception e) {
+            System.out.println("JavaScript click failed, using driver.get(): " + e.getMessage());
+            driver.get(targetUrl);
+        }
 
-            // Wait for products to reload
-            waitHelper.waitForPageLoad();
-            waitHelper.waitForElementPresent(By.xpath("//ul[contains(@class,'products-grid')]//li[contains(@class,'item')]"));
+        // Wait for the filtered page: new URL, loaded, product grid present and visible
+        CompositeCondition.Result reload = waitHelper.waitForAll(new CompositeCondition()
+                .urlChangedFrom(currentUrl)
+                .documentReady()
+                .present(PRODUCT_ITEMS)
+                .visible(PRODUCT_ITEMS));
+        String newUrl = reload.getUrl() != null ? reload.getUrl() : driver.getCurrentUrl();
+        boolean urlChanged = !newUrl.equals(currentUrl);
+
+        if (urlChanged && (newUrl.contains("price=") || newUrl.contains("men.html"))) {
+            System.out.println("URL successfully changed to: " + newUrl + " (" + reload + ")");
+        } else {
+            System.out.println("WARNING: URL did not change as expected (" + reload + ")");
+            System.out.println("Final URL: " + newUrl);
+        }
 
-            // Wait for product grid to be visible
-            List<WebElement> products = driver.findElements(
-                By.xpath("//ul[contains(@class,'products-grid')]//li[contains(@class,'item')]"));
-            if (!products.isEmpty()) {
-                waitHelper.waitForElementVisible(products.get(0));
-                System.out.println("Products reloaded, found " + products.size() + " products");
-            } else {
-                System.out.println("WARNING: No products found after price filter");
-            }
+        long productCount = reload.getMatchCount(2);
+        if (productCount > 0) {
+            System.out.println("Products reloaded, found " + productCount + " products");
+        } else {
+            System.out.println("WARNING: No products found after price filter");
         }
     }
 
+    /**
+     * The index-th price filter link of the locator, if its href really applies a price filter.
+     */
+    private WebElement findPriceOption(By locator, int index) {
+        List<WebElement> options = driver.findElements(locator);
+        System.out.println("Found " + options.size() + " price filter options");
+        if (index >= options.size()) {
+            throw new NoSuchElementException("No price filter option " + index + " among " + options.size());
+        }
+        WebElement option = options.get(index);
+        String href = option.getAttribute("href");
+        if (href == null || href.isEmpty() || href.equals(utils.ConfigReader.getBaseUrl()) || !href.contains("price")) {
+            throw new IllegalStateException("Invalid price filter href: " + href);
+        }
+        return option;
+    }
+
     public boolean isColorFilterExpanded() {
         String ddClass = colorFilterHeader.getAttribute("class");
         return ddClass == null || !ddClass.contains("collapsed");
@@ -386,47 +493,36 @@ public class ProductListPage extends BasePage {
     }
 
     public boolean isProductColorBorderedInBlue(int productIndex) {
-        WebElement product = productItems.get(productIndex);
-        try {
-            // Check for color swatches with "filter-match" class which indicates the filtered color
-            List<WebElement> filterMatchColors = product.findElements(
-                By.xpath(".//ul[contains(@class,'configurable-swatch-color')]//li[contains(@class,'filter-match')]"));
+        ProductCard product = getGridSnapshot().get(productIndex);
 
-            if (!filterMatchColors.isEmpty()) {
+        // Swatches with "filter-match" class indicate the filtered color
+        for (ProductCard.Swatch swatch : product.getSwatches()) {
+            if (swatch.isFilterMatch()) {
                 System.out.println("Product " + productIndex + " has filter-match color swatch");
                 return true;
             }
+        }
 
-            // Fallback: Try multiple possible locators for the selected color swatch
-            List<WebElement> selectedColors = product.findElements(
-                By.xpath(".//li[contains(@class,'selected')]//img | " +
-                        ".//li[@class='selected']//img | " +
-                        ".//ul[@class='configurable-swatch-list']//li[contains(@class,'selected')]"));
-
-            if (!selectedColors.isEmpty()) {
+        // Fallback: a selected color swatch
+        for (ProductCard.Swatch swatch : product.getSwatches()) {
+            if (swatch.isSelected()) {
                 System.out.println("Product " + productIndex + " has selected color swatch");
                 return true;
             }
+        }
 
-            // If no filter-match or selected found, check if the product has any color swatches at all
-            List<WebElement> colorSwatches = product.findElements(
-                By.xpath(".//ul[contains(@class,'configurable-swatch-list')]//li"));
-
-            if (!colorSwatches.isEmpty()) {
-                System.out.println("Product " + productIndex + " has " + colorSwatches.size() + " color swatches (assuming filter working)");
-                return true;
-            }
-
-            System.out.println("Product " + productIndex + " has no color swatches found");
-            return false;
-        } catch (Exception e) {
-            System.out.println("Error checking product " + productIndex + " color: " + e.getMessage());
-            return false;
+        // If no filter-match or selected found, check if the product has any color swatches at all
+        if (!product.getSwatches().isEmpty()) {
+            System.out.println("Product " + productIndex + " has " + product.getSwatches().size() + " color swatches (assuming filter working)");
+            return true;
         }
+
+        System.out.println("Product " + productIndex + " has no color swatches found");
+        return false;
     }
 
     public void addProductToWishlist(int index) {
-        if (index < productItems.size()) {
+        if (index < waitForProducts()) {
             System.out.println("Attempting to add product " + index + " to wishlist");
 
             // Retry logic for adding to wishlist
@@ -434,8 +530,7 @@ public class ProductListPage extends BasePage {
             for (int attempt = 0; attempt < 3 && !added; attempt++) {
                 try {
                     // Refresh product list to get latest state
-                    List<WebElement> currentProducts = driver.findElements(
-                        By.xpath("//ul[contains(@class,'products-grid')]//li[contains(@class,'item')]"));
+                    List<WebElement> currentProducts = driver.findElements(PRODUCT_ITEMS);
 
                     if (index >= currentProducts.size()) {
                         System.out.println("Product index " + index + " out of bounds");
@@ -446,7 +541,7 @@ public class ProductListPage extends BasePage {
 
                     // Scroll to product
                     js.executeScript("arguments[0].scrollIntoView({behavior: 'smooth', block: 'center'});", product);
-                    waitHelper.waitShort(500);
+                    waitHelper.waitForScrollEnd(1000);
 
                     // Find and click wishlist link
                     List<WebElement> wishlistLinks = product.findElements(
@@ -454,7 +549,8 @@ public class ProductListPage extends BasePage {
 
                     if (wishlistLinks.isEmpty()) {
                         System.out.println("No wishlist link found for product " + index + " (attempt " + (attempt + 1) + ")");
-                        waitHelper.waitShort(500);
+                        // The link may still be rendering: retry as soon as the product changes
+                        waitHelper.waitForDomChange(product, 500);
                         continue;
                     }
 
@@ -479,7 +575,7 @@ public class ProductListPage extends BasePage {
 
                 } catch (Exception e) {
                     System.out.println("Attempt " + (attempt + 1) + " failed for product " + index + ": " + e.getMessage());
-                    waitHelper.waitShort(1000);
+                    waitHelper.waitForDomSettled(null, 100, 1000);
                 }
             }
 
@@ -490,132 +586,98 @@ public class ProductListPage extends BasePage {
     }
 
     public boolean hasMultiplePrices(int productIndex) {
-        WebElement product = productItems.get(productIndex);
-        List<WebElement> prices = product.findElements(By.xpath(".//span[@class='price']"));
-        return prices.size() > 1;
+        return getGridSnapshot().get(productIndex).getPriceCount() > 1;
     }
 
     public boolean isOriginalPriceStrikethrough(int productIndex) {
-        WebElement product = productItems.get(productIndex);
-        try {
-            List<WebElement> oldPrices = product.findElements(
-                By.xpath(".//p[@class='old-price']//span[@class='price'] | " +
-                        ".//span[@class='price-label' and contains(text(),'Regular')]/following-sibling::span[@class='price']"));
-
-            if (oldPrices.isEmpty()) {
-                return false;
-            }
-
-            WebElement oldPrice = oldPrices.get(0);
-            String textDecoration = oldPrice.getCssValue("text-decoration");
-            String textDecorationLine = oldPrice.getCssValue("text-decoration-line");
-            String color = oldPrice.getCssValue("color");
-
-            // Check for strikethrough
-            boolean hasStrikethrough = textDecoration.contains("line-through") ||
-                                      textDecorationLine.contains("line-through");
-
-            // Check for gray/grey color (various shades)
-            boolean isGray = color.contains("gray") || color.contains("grey") ||
-                           color.matches(".*rgb\\(\\s*1[0-4][0-9]\\s*,.*") || // gray range 100-149
-                           color.contains("rgb(128, 128, 128)") ||
-                           color.contains("rgb(136, 136, 136)") ||
-                           color.contains("rgb(153, 153, 153)");
-
-            // If no specific gray color, just check for strikethrough as some sites may vary
-            return hasStrikethrough || (hasStrikethrough && isGray);
-        } catch (Exception e) {
-            System.out.println("Error checking original price strikethrough: " + e.getMessage());
+        ProductCard product = getGridSnapshot().get(productIndex);
+        String textDecoration = product.getStyle("oldPrice", "text-decoration");
+        if (textDecoration == null) {
             return false;
         }
+        String textDecorationLine = product.getStyle("oldPrice", "text-decoration-line");
+        String color = product.getStyle("oldPrice", "color");
+
+        // Check for strikethrough
+        boolean hasStrikethrough = textDecoration.contains("line-through") ||
+                                  textDecorationLine.contains("line-through");
+
+        // Check for gray/grey color (various shades)
+        boolean isGray = color.contains("gray") || color.contains("grey") ||
+                       color.matches(".*rgb\\(\\s*1[0-4][0-9]\\s*,.*") || // gray range 100-149
+                       color.contains("rgb(128, 128, 128)") ||
+                       color.contains("rgb(136, 136, 136)") ||
+                       color.contains("rgb(153, 153, 153)");
+
+        // If no specific gray color, just check for strikethrough as some sites may vary
+        return hasStrikethrough || (hasStrikethrough && isGray);
     }
 
     public boolean isFinalPriceBlueAndNotStrikethrough(int productIndex) {
-        WebElement product = productItems.get(productIndex);
-        try {
-            List<WebElement> finalPrices = product.findElements(
-                By.xpath(".//p[@class='special-price']//span[@class='price'] | " +
-                        ".//span[@id and contains(@id,'product-price')]"));
-
-            if (finalPrices.isEmpty()) {
-                return false;
-            }
-
-            WebElement finalPrice = finalPrices.get(0);
-            String textDecoration = finalPrice.getCssValue("text-decoration");
-            String textDecorationLine = finalPrice.getCssValue("text-decoration-line");
-            String color = finalPrice.getCssValue("color");
-
-            // Check NOT strikethrough
-            boolean notStrikethrough = !textDecoration.contains("line-through") &&
-                                      !textDecorationLine.contains("line-through");
-
-            // New Fix : Check for blue color (many shades of blue)
-            boolean isBlue = color.contains("blue") ||
-                           color.contains("rgb(0, 0, 255)") ||
-                           color.contains("rgb(21, 101, 192)") ||
-                           color.contains("rgb(51, 153, 204)") || // Common e-commerce blue
-                           color.matches(".*rgb\\(\\s*[0-9]{1,2}\\s*,\\s*[0-9]{1,3}\\s*,\\s*1[5-9][0-9].*") || // bluish
-                           color.matches(".*rgb\\(\\s*[0-9]{1,2}\\s*,\\s*[0-9]{1,3}\\s*,\\s*2[0-4][0-9].*"); // bluish
-
-            System.out.println("Final price - Color: " + color + ", Is Blue: " + isBlue +
-                             ", Not Strikethrough: " + notStrikethrough);
-
-            // Verify BOTH conditions: not strikethrough AND blue color
-            return notStrikethrough && isBlue;
-        } catch (Exception e) {
-            System.out.println("Error checking final price: " + e.getMessage());
+        ProductCard product = getGridSnapshot().get(productIndex);
+        String textDecoration = product.getStyle("finalPrice", "text-decoration");
+        if (textDecoration == null) {
             return false;
         }
+        String textDecorationLine = product.getStyle("finalPrice", "text-decoration-line");
+        String color = product.getStyle("finalPrice", "color");
+
+        // Check NOT strikethrough
+        boolean notStrikethrough = !textDecoration.contains("line-through") &&
+                                  !textDecorationLine.contains("line-through");
+
+        // New Fix : Check for blue color (many shades of blue)
+        boolean isBlue = color.contains("blue") ||
+                       color.contains("rgb(0, 0, 255)") ||
+                       color.contains("rgb(21, 101, 192)") ||
+                       color.contains("rgb(51, 153, 204)") || // Common e-commerce blue
+                       color.matches(".*rgb\\(\\s*[0-9]{1,2}\\s*,\\s*[0-9]{1,3}\\s*,\\s*1[5-9][0-9].*") || // bluish
+                       color.matches(".*rgb\\(\\s*[0-9]{1,2}\\s*,\\s*[0-9]{1,3}\\s*,\\s*2[0-4][0-9].*"); // bluish
+
+        System.out.println("Final price - Color: " + color + ", Is Blue: " + isBlue +
+                         ", Not Strikethrough: " + notStrikethrough);
+
+        // Verify BOTH conditions: not strikethrough AND blue color
+        return notStrikethrough && isBlue;
+    }
+
+    /**
+     * Checks the price styling of every sale product (cards with more than one price) in one
+     * pass: the old price is struck through, the final price is blue and not struck through.
+     */
+    public StyleAudit.Result auditSalePriceStyles() {
+        waitForProducts();
+        StyleAudit.Result audit = StyleAudit.on(driver)
+                .scope(PRODUCT_ITEMS)
+                .onlyWhere("span.price", 2)
+                .require("old price is struck through", OLD_PRICE,
+                        StyleAudit.anyContains("line-through", "text-decoration", "text-decoration-line"))
+                .require("final price is blue and not struck through", "p.special-price span.price, span[id*='product-price']",
+                        StyleAudit.matches("color", BRAND_BLUE),
+                        StyleAudit.noneContains("line-through", "text-decoration", "text-decoration-line"))
+                .run();
+        System.out.println("Sale price style audit: " + audit);
+        return audit;
     }
 
     public boolean areProductsSortedByPrice() {
-        List<Double> prices = getProductPrices();
-        for (int i = 0; i < prices.size() - 1; i++) {
-            if (prices.get(i) > prices.get(i + 1)) {
-                return false;
-            }
+        ProductGrid products = getGrid();
+        int unsorted = products.firstUnsortedIndex();
+        if (unsorted >= 0) {
+            System.out.println("Product " + unsorted + " (" + Prices.format(products.priceCents(unsorted))
+                    + ") is cheaper than the product before it");
         }
-        return true;
+        return unsorted < 0;
     }
 
     public boolean isProductPriceInRange(int productIndex, double minPrice, double maxPrice) {
-        if (productIndex < productItems.size()) {
-            try {
-                WebElement product = productItems.get(productIndex);
-                double price = 0.0;
-
-                // Try to get special price first (for sale items)
-                List<WebElement> specialPrices = product.findElements(
-                    By.xpath(".//p[@class='special-price']//span[@class='price']"));
-
-                if (!specialPrices.isEmpty()) {
-                    String priceText = specialPrices.get(0).getText()
-                        .replace("$", "").replace(",", "").trim();
-                    price = Double.parseDouble(priceText);
-                } else {
-                    // Otherwise use regular price - try multiple selectors
-                    List<WebElement> regularPrices = product.findElements(
-                        By.xpath(".//span[@class='regular-price']//span[@class='price'] | " +
-                                ".//p[@class='price-box']//span[@class='price'] | " +
-                                ".//span[@id and contains(@id,'product-price')]"));
-
-                    if (!regularPrices.isEmpty()) {
-                        String priceText = regularPrices.get(0).getText()
-                            .replace("$", "").replace(",", "").trim();
-                        price = Double.parseDouble(priceText);
-                    }
-                }
-
-                System.out.println("Product " + productIndex + " price: $" + price + " (range: $" + minPrice + " - $" + maxPrice + ")");
-
-                // For price filter validation, be slightly lenient to handle edge cases
-                return price >= (minPrice - 0.01) && price <= (maxPrice + 0.01);
-            } catch (Exception e) {
-                System.out.println("Failed to check price range for product " + productIndex + ": " + e.getMessage());
-                return false;
-            }
+        ProductGrid products = getGrid();
+        if (productIndex >= products.size()) {
+            return false;
         }
-        return false;
+        long price = products.priceCents(productIndex);
+        System.out.println("Product " + productIndex + " price: " + Prices.format(price) + " (range: $" + minPrice + " - $" + maxPrice + ")");
+        // For price filter validation, be slightly lenient to handle edge cases
+        return products.isWithin(productIndex, minPrice, maxPrice);
     }
 }
@@ -102,7 +102,7 @@ public class RegisterPage extends BasePage {
     }
 
     public boolean isRegisterPageLoaded() {
-        return waitHelper.isElementDisplayed(pageHeading);
+        return waitHelper.isElementDisplayedWithRetry(pageHeading);
     }
 
     public String getPageTitle() {
@@ -110,7 +110,7 @@ public class RegisterPage extends BasePage {
     }
 
     public boolean isSuccessMessageDisplayed() {
-        return waitHelper.isElementDisplayed(successMessage);
+        return waitHelper.isElementDisplayedWithRetry(successMessage);
     }
 
     public String getSuccessMessage() {
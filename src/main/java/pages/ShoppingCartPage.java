@@ -1,22 +1,62 @@
 package pages;
 
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptException;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * ShoppingCartPage - Tealium E-commerce Shopping Cart Page
  */
 public class ShoppingCartPage extends BasePage {
 
+    private static final By CART_CONTENT = By.xpath(
+            "//table[@id='shopping-cart-table'] | //p[@class='empty'] | //div[@class='cart-empty']");
+
+    private static final String CART_ROWS_XPATH = "//table[@id='shopping-cart-table']//tbody/tr";
+    private static final String GRAND_TOTAL_XPATH =
+            "//tfoot//tr[contains(@class,'last') or contains(@class,'grand-total')]//span[@class='price']";
+    private static final String EMPTY_CART_XPATH = "//p[@class='empty'] | //div[@class='cart-empty']/p";
+
+    // Reads the rows, the totals block and the empty-cart state in one call; see CartSnapshot
+    private static final String CART_SCRIPT =
+            "function all(xpath) {"
+            + "  var r = document.evaluate(xpath, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null), out = [];"
+            + "  for (var i = 0; i < r.snapshotLength; i++) { out.push(r.snapshotItem(i)); }"
+            + "  return out;"
+            + "}"
+            + "function text(el) { return el ? el.textContent.replace(/\\s+/g, ' ').trim() : null; }"
+            + "var table = document.getElementById('shopping-cart-table');"
+            + "var empty = all(arguments[2]).some(function (el) { return el.getClientRects().length > 0; });"
+            + "if (!table && !empty) { return null; }"
+            + "var rows = all(arguments[0]).map(function (tr) {"
+            + "  var qty = tr.querySelector('input[title=\"Qty\"], input[name*=\"qty\"]'), sku = tr.querySelector('.product-cart-sku');"
+            + "  var label = sku ? sku.querySelector('.label') : null;"
+            + "  var options = Array.prototype.map.call(tr.querySelectorAll('dl.item-options dt'), function (dt) {"
+            + "    return text(dt) + ': ' + text(dt.nextElementSibling);"
+            + "  });"
+            + "  return {sku: sku ? text(sku).replace(text(label) || '', '').trim() : null,"
+            + "    name: text(tr.querySelector('.product-name a, .product-name')), options: options,"
+            + "    qty: qty ? qty.value : null,"
+            + "    unitPrice: text(tr.querySelector('td.product-cart-price span.price')),"
+            + "    subtotal: text(tr.querySelector('td.product-cart-total span.price'))};"
+            + "});"
+            + "var totals = Array.prototype.map.call(document.querySelectorAll('#shopping-cart-totals-table tbody tr'), function (tr) {"
+            + "  var cells = tr.querySelectorAll('td');"
+            + "  return {label: text(cells[0]), amount: text(tr.querySelector('span.price'))};"
+            + "});"
+            + "var grand = all(arguments[1]);"
+            + "return {empty: empty, rows: rows, totals: totals, grandTotal: grand.length ? text(grand[0]) : null};";
+
     @FindBy(xpath = "//h1[contains(text(),'Shopping Cart')]")
     private WebElement pageHeading;
 
-    @FindBy(xpath = "//table[@id='shopping-cart-table']//tbody/tr")
+    @FindBy(xpath = CART_ROWS_XPATH)
     private List<WebElement> cartItems;
 
     @FindBy(xpath = "//button[@title='Update' or @title='Update Shopping Cart' or contains(@class,'btn-update')]")
@@ -28,7 +68,7 @@ public class ShoppingCartPage extends BasePage {
     @FindBy(xpath = "//tfoot//tr[contains(@class,'last') or contains(@class,'grand-total')]//span[@class='price']")
     private WebElement grandTotalPrice;
 
-    @FindBy(xpath = "//p[@class='empty'] | //div[@class='cart-empty']/p")
+    @FindBy(xpath = EMPTY_CART_XPATH)
     private WebElement emptyCartMessage;
 
     public ShoppingCartPage(WebDriver driver) {
@@ -89,19 +129,50 @@ public class ShoppingCartPage extends BasePage {
         }
     }
 
+    /**
+     * Number of item rows; 0 when the cart is empty or the page shows no cart.
+     */
     public int getCartItemCount() {
+        CartSnapshot cart = readCart();
+        return cart == null ? 0 : cart.getItemCount();
+    }
+
+    /**
+     * Every row of the cart table with the totals block, read in one script call. Waits for
+     * the cart to render only when it has not yet.
+     *
+     * @throws IllegalStateException when neither the cart table nor the empty-cart message appears
+     */
+    public CartSnapshot getCartSnapshot() {
+        CartSnapshot cart = readCart();
+        if (cart == null) {
+            throw new IllegalStateException("Neither the cart table nor the empty-cart message is on the page");
+        }
+        return cart;
+    }
+
+    /**
+     * The cart, or null when neither the cart table nor the empty-cart message appears in time.
+     */
+    @SuppressWarnings("unchecked")
+    private CartSnapshot readCart() {
+        Object cart = null;
         try {
-            // Check if cart is empty first
-            if (waitHelper.isElementDisplayed(emptyCartMessage)) {
-                return 0;
+            cart = js.executeScript(CART_SCRIPT, CART_ROWS_XPATH, GRAND_TOTAL_XPATH, EMPTY_CART_XPATH);
+        } catch (JavascriptException e) {
+            // Page being replaced (e.g. after a delete): wait below and read again
+        }
+        if (cart == null) {
+            if (!waitForCartContent()) {
+                return null;
             }
-            return cartItems.size();
-        } catch (Exception e) {
-            return 0;
+            cart = js.executeScript(CART_SCRIPT, CART_ROWS_XPATH, GRAND_TOTAL_XPATH, EMPTY_CART_XPATH);
         }
+        return cart == null ? null : new CartSnapshot((Map<String, Object>) cart);
     }
 
     public void updateQuantity(int itemIndex, int quantity) {
+        waitForCartContent();
         if (itemIndex < cartItems.size()) {
             WebElement item = cartItems.get(itemIndex);
             WebElement qtyInput = item.findElement(By.xpath(".//input[@title='Qty' or contains(@name,'qty')]"));
@@ -121,8 +192,8 @@ public class ShoppingCartPage extends BasePage {
             js.executeScript("arguments[0].click();", updateButton);
         }
 
-        // Wait for update to process
-        waitHelper.waitForPageLoad();
+        // Wait for the update request and the reloaded cart to finish loading
+        waitHelper.waitForNetworkIdle();
     }
 
     public void deleteItem(int itemIndex) {
@@ -150,7 +221,7 @@ public class ShoppingCartPage extends BasePage {
 
             if (clicked) {
                 System.out.println("Delete button clicked successfully via JavaScript");
-                waitHelper.waitForPageLoad(); // Wait for page reload after deletion
+                waitHelper.waitForNetworkIdle(); // Wait for page reload after deletion
             } else {
                 System.out.println("Could not find remove button via JavaScript");
             }
@@ -160,38 +231,65 @@ public class ShoppingCartPage extends BasePage {
         }
     }
 
+    /**
+     * The row total of the item (the subtotal column, not the unit price).
+     */
     public double getItemSubtotal(int itemIndex) {
-        if (itemIndex < cartItems.size()) {
-            WebElement item = cartItems.get(itemIndex);
-            WebElement subtotal = item.findElement(By.xpath(".//td[@class='product-cart-price']//span[@class='price']"));
-            String priceText = subtotal.getText().replace("$", "").replace(",", "").trim();
-            return Double.parseDouble(priceText);
+        List<CartSnapshot.Row> rows = getCartSnapshot().getRows();
+        if (itemIndex < rows.size() && rows.get(itemIndex).getSubtotalCents() != Prices.NONE) {
+            return rows.get(itemIndex).getSubtotalCents() / 100.0;
         }
         return 0.0;
     }
 
     public double calculateTotalFromItems() {
-        double total = 0.0;
-        for (int i = 0; i < cartItems.size(); i++) {
-            total += getItemSubtotal(i);
-        }
-        return total;
+        long total = getCartSnapshot().getItemsSumCents();
+        return total == Prices.NONE ? 0.0 : total / 100.0;
     }
 
+    /**
+     * @throws IllegalStateException when the cart shows no readable grand total
+     */
     public double getGrandTotal() {
-        waitHelper.waitForElementVisible(grandTotalPrice);
-        String priceText = grandTotalPrice.getText().replace("$", "").replace(",", "").trim();
-        return Double.parseDouble(priceText);
+        long grandTotal = getCartSnapshot().getGrandTotalCents();
+        if (grandTotal == Prices.NONE) {
+            // Totals block still rendering
+            waitHelper.waitForElementVisible(grandTotalPrice);
+            grandTotal = getCartSnapshot().getGrandTotalCents();
+        }
+        if (grandTotal == Prices.NONE) {
+            throw new IllegalStateException("The cart shows no readable grand total");
+        }
+        return grandTotal / 100.0;
     }
 
+    /**
+     * Compares the grand total with the sum of the row subtotals, exactly in cents, from a
+     * single read of the cart.
+     */
     public boolean verifyGrandTotalMatchesItemsSum() {
-        double calculatedTotal = calculateTotalFromItems();
-        double displayedTotal = getGrandTotal();
-        return Math.abs(calculatedTotal - displayedTotal) < 0.01;
+        CartSnapshot cart = getCartSnapshot();
+        long itemsSum = cart.getItemsSumCents();
+        long grandTotal = cart.getGrandTotalCents();
+        System.out.println("Cart items sum " + Prices.format(itemsSum) + ", grand total " + Prices.format(grandTotal)
+                + ", totals " + cart.getTotals());
+        return itemsSum != Prices.NONE && itemsSum == grandTotal;
     }
 
+    /**
+     * True when the empty-cart message shows; false for a cart with items and off the cart page.
+     */
     public boolean isCartEmpty() {
-        return waitHelper.isElementDisplayed(emptyCartMessage);
+        CartSnapshot cart = readCart();
+        return cart != null && cart.isEmpty();
+    }
+
+    /**
+     * Waits until either the cart table or the empty-cart message has rendered, so item
+     * lookups do not depend on the implicit wait. False if neither appears in time.
+     */
+    private boolean waitForCartContent() {
+        return waitHelper.waitForElementPresent(CART_CONTENT);
     }
 
     public String getEmptyCartMessage() {
@@ -13,6 +13,9 @@ import java.util.List;
  */
 public class WishlistPage extends BasePage {
 
+    private static final By WISHLIST_CONTENT = By.xpath(
+            "//table[@id='wishlist-table'] | //form[@id='wishlist-view-form'] | //p[contains(@class,'wishlist-empty')]");
+
     @FindBy(xpath = "//h1[contains(text(),'My Wishlist') or contains(text(),'Wishlist')]")
     private WebElement pageHeading;
 
@@ -27,14 +30,16 @@ public class WishlistPage extends BasePage {
     }
 
     public boolean isWishlistPageLoaded() {
-        return waitHelper.isElementDisplayed(pageHeading);
+        return waitHelper.isElementDisplayedWithRetry(pageHeading);
     }
 
     public int getWishlistItemCount() {
+        waitHelper.waitForElementPresent(WISHLIST_CONTENT);
         return wishlistItems.size();
     }
 
     public void addItemToCart(int index, String size, String color) {
+        waitHelper.waitForElementPresent(WISHLIST_CONTENT);
         if (index < wishlistItems.size()) {
             WebElement item = wishlistItems.get(index);
 
@@ -77,8 +82,8 @@ public class WishlistPage extends BasePage {
                     }
                 }
 
-                // Wait for selections to register
-                waitHelper.waitShort(300);
+                // Wait for the page scripts to finish reacting to the selections
+                waitHelper.waitForDomSettled(item, 50, 300);
 
                 // Click add to cart
                 WebElement addToCartBtn = item.findElement(By.xpath(".//button[@title='Add to Cart' or contains(@class,'btn-cart') or contains(text(),'Add to Cart')]"));
@@ -0,0 +1,120 @@
+package utils;
+
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.Wait;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * AdaptiveWait - Drop-in replacement for WebDriverWait with adaptive polling.
+ *
+ * The condition is checked at once, then with exponential back-off starting at a few
+ * milliseconds. Each condition key remembers how long it usually takes to become true;
+ * later waits skip ahead to that point and poll densely around it, so fast conditions
+ * return within milliseconds and slow ones do not flood the driver with commands.
+ */
+public class AdaptiveWait implements Wait<WebDriver> {
+    // Smoothed time-to-true in milliseconds per condition key, shared by all sessions
+    private static final Map<String, Long> learnedMillis = new ConcurrentHashMap<>();
+
+    private final WebDriver driver;
+    private final Duration timeout;
+    private final long initialPollMillis;
+    private final long maxPollMillis;
+
+    public AdaptiveWait(WebDriver driver, Duration timeout) {
+        this.driver = driver;
+        this.timeout = timeout;
+        this.initialPollMillis = ConfigReader.getTimeouts().getPollInitialMillis();
+        this.maxPollMillis = ConfigReader.getTimeouts().getPollMaxMillis();
+    }
+
+    @Override
+    public <T> T until(Function<? super WebDriver, T> condition) {
+        return until(condition.getClass().getName(), condition);
+    }
+
+    /**
+     * Waits until the condition returns a non-null, non-false value, like WebDriverWait.
+     * NotFoundException is ignored while polling.
+     *
+     * @param key identifies the condition (and call site) whose timing is learned
+     */
+    public <T> T until(String key, Function<? super WebDriver, T> condition) {
+        long start = System.nanoTime();
+        try {
+            T value = poll(key, condition, start);
+            WaitStats.record(key, WaitStats.Outcome.SATISFIED, start);
+            return value;
+        } catch (TimeoutException e) {
+            WaitStats.record(key, WaitStats.Outcome.TIMED_OUT, start);
+            throw e;
+        } catch (RuntimeException e) {
+            WaitStats.record(key, WaitStats.Outcome.FAILED, start);
+            throw e;
+        }
+    }
+
+    private <T> T poll(String key, Function<? super WebDriver, T> condition, long start) {
+        long timeoutMillis = timeout.toMillis();
+        Long expected = learnedMillis.get(key);
+        long backoff = initialPollMillis;
+        RuntimeException lastError = null;
+
+        while (true) {
+            try {
+                T value = condition.apply(driver);
+                if (value != null && !Boolean.FALSE.equals(value)) {
+                    learn(key, elapsedMillis(start));
+                    return value;
+                }
+                lastError = null;
+            } catch (NotFoundException e) {
+                lastError = e;
+            }
+
+            long elapsed = elapsedMillis(start);
+            if (elapsed >= timeoutMillis) {
+                throw new TimeoutException("Expected condition failed: waiting for " + describe(key, condition)
+                        + " (tried for " + timeout.getSeconds() + " second(s) with adaptive polling)", lastError);
+            }
+
+            long delay;
+            if (expected != null && elapsed < expected * 7 / 10) {
+                // Too early to be worth asking: jump close to the usual time-to-true
+                delay = Math.min(expected * 7 / 10 - elapsed, maxPollMillis);
+            } else if (expected != null && elapsed <= expected * 3 / 2 + initialPollMillis) {
+                // Around the usual time-to-true: poll hardest, within ~5% of that time
+                delay = Math.max(initialPollMillis, Math.min(expected / 20, maxPollMillis));
+            } else {
+                delay = backoff;
+                backoff = Math.min(backoff * 2, maxPollMillis);
+            }
+
+            try {
+                Thread.sleep(Math.max(1, Math.min(delay, timeoutMillis - elapsed)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TimeoutException("Interrupted while waiting for " + describe(key, condition), e);
+            }
+        }
+    }
+
+    private static void learn(String key, long observedMillis) {
+        learnedMillis.merge(key, observedMillis, (previous, observed) -> (previous * 7 + observed * 3) / 10);
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static String describe(String key, Function<?, ?> condition) {
+        String text = condition.toString();
+        return text.contains("$$Lambda") ? key : text;
+    }
+}
@@ -0,0 +1,203 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * BrowserContextManager - Opens an isolated (incognito-style) browser context per session
+ * inside a long-lived Chrome, using the DevTools Target domain.
+ *
+ * A WebDriver session can only drive one window at a time, so each host browser serves one
+ * session at a time; concurrent sessions get their own hosts, which are kept for later
+ * sessions. Each test then only pays for a new context, not a new browser process.
+ */
+public class BrowserContextManager {
+    private final Supplier<WebDriver> hostFactory;
+    private final Deque<Host> idleHosts = new ArrayDeque<>();
+    private final Map<WebDriver, Host> busyHosts = new ConcurrentHashMap<>();
+    private final List<Host> allHosts = Collections.synchronizedList(new ArrayList<>());
+
+    public BrowserContextManager(Supplier<WebDriver> hostFactory) {
+        this.hostFactory = hostFactory;
+    }
+
+    /**
+     * Creates a fresh browser context on an idle host browser (launching one if none is
+     * idle) and switches the host session to its window.
+     */
+    public WebDriver open() {
+        Host host = takeIdleHost();
+        if (host == null) {
+            host = new Host(hostFactory.get());
+            allHosts.add(host);
+        }
+        busyHosts.put(host.driver, host);
+
+        String contextId = null;
+        try {
+            HasCdp cdp = host.cdp();
+            Map<String, Object> contextParams = new HashMap<>();
+            contextParams.put("disposeOnDetach", false);
+            contextId = (String) cdp.executeCdpCommand("Target.createBrowserContext", contextParams)
+                    .get("browserContextId");
+
+            Set<String> handlesBefore = new HashSet<>(host.driver.getWindowHandles());
+            Map<String, Object> targetParams = new HashMap<>();
+            targetParams.put("url", "about:blank");
+            targetParams.put("browserContextId", contextId);
+            String targetId = (String) cdp.executeCdpCommand("Target.createTarget", targetParams).get("targetId");
+
+            host.driver.switchTo().window(findHandle(host.driver, handlesBefore, targetId));
+            host.contextId = contextId;
+            return host.driver;
+        } catch (RuntimeException e) {
+            release(host, contextId);
+            throw e;
+        }
+    }
+
+    /**
+     * Gives back a host whose context could not be opened: disposes the half-made context
+     * and returns the host to the idle list, or quits it when it no longer responds.
+     */
+    private void release(Host host, String contextId) {
+        busyHosts.remove(host.driver);
+        try {
+            host.driver.switchTo().window(host.defaultHandle);
+            if (contextId != null) {
+                Map<String, Object> params = new HashMap<>();
+                params.put("browserContextId", contextId);
+                host.cdp().executeCdpCommand("Target.disposeBrowserContext", params);
+            }
+            host.contextId = null;
+            synchronized (idleHosts) {
+                idleHosts.addFirst(host);
+            }
+        } catch (Exception e) {
+            System.out.println("[CONTEXT] Could not open browser context, dropping host: " + e.getMessage());
+            allHosts.remove(host);
+            host.quit();
+        }
+    }
+
+    /**
+     * Disposes the session's context, dropping its cookies, storage and windows.
+     * The host browser goes back to the idle list for the next session.
+     */
+    public void close(WebDriver driver) {
+        Host host = busyHosts.remove(driver);
+        if (host == null) {
+            return;
+        }
+
+        try {
+            host.driver.switchTo().window(host.defaultHandle);
+            Map<String, Object> params = new HashMap<>();
+            params.put("browserContextId", host.contextId);
+            host.cdp().executeCdpCommand("Target.disposeBrowserContext", params);
+            DriverManager.applyTimeouts(host.driver);
+            host.contextId = null;
+            synchronized (idleHosts) {
+                idleHosts.addFirst(host);
+            }
+        } catch (Exception e) {
+            System.out.println("[CONTEXT] Could not dispose browser context, dropping host: " + e.getMessage());
+            allHosts.remove(host);
+            host.quit();
+        }
+    }
+
+    public void shutdown() {
+        List<Host> hosts;
+        synchronized (allHosts) {
+            hosts = new ArrayList<>(allHosts);
+            allHosts.clear();
+        }
+        synchronized (idleHosts) {
+            idleHosts.clear();
+        }
+        List<Callable<Void>> quits = new ArrayList<>();
+        for (Host host : hosts) {
+            quits.add(() -> {
+                host.quit();
+                return null;
+            });
+        }
+        HarnessExecutors.invokeAll(quits);
+    }
+
+    private Host takeIdleHost() {
+        while (true) {
+            Host host;
+            synchronized (idleHosts) {
+                host = idleHosts.pollFirst();
+            }
+            if (host == null || host.isAlive()) {
+                return host;
+            }
+            allHosts.remove(host);
+            host.quit();
+        }
+    }
+
+    private static String findHandle(WebDriver driver, Set<String> handlesBefore, String targetId) {
+        Set<String> handlesAfter = driver.getWindowHandles();
+        if (handlesAfter.contains(targetId)) {
+            return targetId;
+        }
+        for (String handle : handlesAfter) {
+            if (!handlesBefore.contains(handle)) {
+                return handle;
+            }
+        }
+        throw new IllegalStateException("No window found for new browser context target " + targetId);
+    }
+
+    private static final class Host {
+        private final WebDriver driver;
+        private final String defaultHandle;
+        private String contextId;
+
+        private Host(WebDriver driver) {
+            if (!(driver instanceof HasCdp)) {
+                driver.quit();
+                throw new IllegalArgumentException("driver.mode=context requires a Chromium browser (chrome or edge)");
+            }
+            this.driver = driver;
+            this.defaultHandle = driver.getWindowHandle();
+        }
+
+        private HasCdp cdp() {
+            return (HasCdp) driver;
+        }
+
+        private boolean isAlive() {
+            try {
+                return driver.getWindowHandles().contains(defaultHandle);
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        private void quit() {
+            try {
+                driver.quit();
+            } catch (Exception e) {
+                // Browser already gone
+            }
+        }
+    }
+}
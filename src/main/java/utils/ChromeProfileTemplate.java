@@ -0,0 +1,212 @@
+package utils;
+
+import org.apache.commons.io.FileUtils;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * ChromeProfileTemplate - Builds a warmed-up Chrome user-data-dir once per run
+ * (first-run work done, HTTP cache populated from base.url) and gives every new
+ * session its own cheap copy of it.
+ *
+ * Copies use copy-on-write clones (cp --reflink) when the filesystem supports them.
+ * Otherwise HTTP cache entry files are hardlinked and everything else is copied.
+ * Chrome replaces cache entries rather than rewriting them in place, but set
+ * chrome.profile.copy=copy if sessions must never share an inode with the template.
+ */
+public class ChromeProfileTemplate {
+    private static final Set<String> SKIPPED_FILES = new HashSet<>(Arrays.asList(
+            "SingletonLock", "SingletonSocket", "SingletonCookie", "lockfile", "DevToolsActivePort"));
+    private static final Set<String> CACHE_DIRS = new HashSet<>(Arrays.asList(
+            "Cache", "Cache_Data", "Code Cache", "GPUCache", "js", "wasm"));
+
+    private static final List<Path> createdDirs = Collections.synchronizedList(new ArrayList<>());
+    // A lock rather than synchronized: virtual threads must not block on a monitor during the warm-up
+    private static final ReentrantLock templateLock = new ReentrantLock();
+    private static Path template;
+    private static volatile Boolean reflinkSupported;
+
+    public static boolean isEnabled() {
+        return ConfigReader.getBooleanProperty("chrome.profile.template", false);
+    }
+
+    /**
+     * Returns a fresh profile directory for one browser session, building the template
+     * first if this is the first call of the run.
+     *
+     * @param launcher starts Chrome with the given user-data-dir; used once to warm the template
+     */
+    public static Path newSessionProfile(Function<Path, WebDriver> launcher) {
+        Path source = getTemplate(launcher);
+        try {
+            Path target = Files.createTempDirectory("chrome-profile-");
+            createdDirs.add(target);
+            long start = System.currentTimeMillis();
+            cloneProfile(source, target);
+            System.out.println("[PROFILE] Cloned profile template in " + (System.currentTimeMillis() - start) + "ms");
+            return target;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not copy Chrome profile template", e);
+        }
+    }
+
+    private static Path getTemplate(Function<Path, WebDriver> launcher) {
+        templateLock.lock();
+        try {
+            return buildTemplateOnce(launcher);
+        } finally {
+            templateLock.unlock();
+        }
+    }
+
+    private static Path buildTemplateOnce(Function<Path, WebDriver> launcher) {
+        if (template != null) {
+            return template;
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            Path dir = Files.createTempDirectory("chrome-profile-template-");
+            createdDirs.add(dir);
+            Runtime.getRuntime().addShutdownHook(new Thread(ChromeProfileTemplate::deleteCreatedDirs));
+
+            WebDriver warmDriver = launcher.apply(dir);
+            try {
+                visit(warmDriver, ConfigReader.getBaseUrl());
+                for (String path : ConfigReader.getProperty("chrome.profile.warmup.paths", "").split(",")) {
+                    if (!path.trim().isEmpty()) {
+                        visit(warmDriver, ConfigReader.getBaseUrl() + path.trim());
+                    }
+                }
+            } finally {
+                // Quitting flushes the cache index to disk
+                warmDriver.quit();
+            }
+
+            template = dir;
+            System.out.println("[PROFILE] Built Chrome profile template in " + (System.currentTimeMillis() - start) + "ms");
+            return template;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create Chrome profile template", e);
+        }
+    }
+
+    /**
+     * Loads a page fully. The page load strategy is NONE, so wait for the old document
+     * to go stale before trusting readyState.
+     */
+    private static void visit(WebDriver driver, String url) {
+        WaitHelper waitHelper = new WaitHelper(driver);
+        WebElement oldDocument = driver.findElement(By.tagName("html"));
+        driver.get(url);
+        waitHelper.waitForStaleElement(oldDocument);
+        waitHelper.waitForPageLoad();
+    }
+
+    private static void cloneProfile(Path source, Path target) throws IOException {
+        String mode = ConfigReader.getProperty("chrome.profile.copy", "auto").toLowerCase();
+        if (mode.equals("auto") && tryReflink(source, target)) {
+            return;
+        }
+        boolean linkCacheEntries = !mode.equals("copy");
+
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                String name = file.getFileName().toString();
+                if (SKIPPED_FILES.contains(name)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                Path destination = target.resolve(source.relativize(file).toString());
+                if (linkCacheEntries && isCacheEntry(file)) {
+                    try {
+                        Files.createLink(destination, file);
+                        return FileVisitResult.CONTINUE;
+                    } catch (IOException | UnsupportedOperationException e) {
+                        // e.g. different filesystem: fall back to a plain copy
+                    }
+                }
+                Files.copy(file, destination, StandardCopyOption.COPY_ATTRIBUTES);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Cache entry files sit directly in one of Chrome's cache directories; their index
+     * files are rewritten in place and must always be copied.
+     */
+    private static boolean isCacheEntry(Path file) {
+        Path parent = file.getParent();
+        String name = file.getFileName().toString();
+        return parent != null && CACHE_DIRS.contains(parent.getFileName().toString())
+                && !name.startsWith("index") && !name.equals("the-real-index");
+    }
+
+    /**
+     * Not synchronized, so sessions starting together clone concurrently; at worst the
+     * first few clones each find out whether reflinks work.
+     */
+    private static boolean tryReflink(Path source, Path target) {
+        if (Boolean.FALSE.equals(reflinkSupported) || !System.getProperty("os.name").toLowerCase().contains("linux")) {
+            return false;
+        }
+        try {
+            Process process = new ProcessBuilder("cp", "-R", "--reflink=always", source + "/.", target.toString())
+                    .redirectErrorStream(true)
+                    // Nobody reads cp's errors; an unread pipe would block a cp that prints many
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            boolean succeeded = process.waitFor(60, TimeUnit.SECONDS) && process.exitValue() == 0;
+            if (!succeeded) {
+                process.destroyForcibly();
+                FileUtils.cleanDirectory(target.toFile());
+            } else {
+                for (String skipped : SKIPPED_FILES) {
+                    Files.deleteIfExists(target.resolve(skipped));
+                }
+            }
+            reflinkSupported = succeeded;
+            return succeeded;
+        } catch (IOException e) {
+            reflinkSupported = false;
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void deleteCreatedDirs() {
+        synchronized (createdDirs) {
+            for (Path dir : createdDirs) {
+                FileUtils.deleteQuietly(dir.toFile());
+            }
+            createdDirs.clear();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package utils;
+
+import org.openqa.selenium.By;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CompositeCondition - Several wait conditions (URL, readyState, element presence and
+ * visibility) checked together by one injected script, so each poll costs a single
+ * WebDriver command no matter how many conditions are combined.
+ *
+ * Use with WaitHelper.waitForAll(). The result tells which condition was the last to
+ * become true, i.e. what the wait was really waiting for.
+ */
+public class CompositeCondition {
+    static final String SCRIPT =
+            "var checks = arguments[0], states = [], counts = [];"
+            + "function find(c) {"
+            + "  if (c.using === 'xpath') {"
+            + "    var r = document.evaluate(c.value, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null), out = [];"
+            + "    for (var i = 0; i < r.snapshotLength; i++) { out.push(r.snapshotItem(i)); }"
+            + "    return out;"
+            + "  }"
+            + "  return Array.prototype.slice.call(document.querySelectorAll(c.value));"
+            + "}"
+            + "function shown(el) {"
+            + "  var s = getComputedStyle(el);"
+            + "  return el.getClientRects().length > 0 && s.visibility !== 'hidden' && s.opacity !== '0';"
+            + "}"
+            + "checks.forEach(function (c) {"
+            + "  var ok = false, count = -1;"
+            + "  if (c.type === 'urlChanged') { ok = location.href !== c.value; }"
+            + "  else if (c.type === 'urlContains') { ok = location.href.indexOf(c.value) >= 0; }"
+            + "  else if (c.type === 'ready') { ok = document.readyState === 'complete'; }"
+            + "  else { var els = find(c); count = els.length; ok = c.type === 'present' ? count > 0 : count > 0 && shown(els[0]); }"
+            + "  states.push(ok); counts.push(count);"
+            + "});"
+            + "return {states: states, counts: counts, url: location.href};";
+
+    private final List<Map<String, Object>> checks = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+
+    public CompositeCondition urlChangedFrom(String url) {
+        return add("urlChanged", url, null, "URL changed from " + url);
+    }
+
+    public CompositeCondition urlContains(String urlPart) {
+        return add("urlContains", urlPart, null, "URL contains " + urlPart);
+    }
+
+    public CompositeCondition documentReady() {
+        return add("ready", null, null, "document ready");
+    }
+
+    public CompositeCondition present(By locator) {
+        return add("present", null, locator, "present " + locator);
+    }
+
+    /**
+     * The first element matching the locator is displayed.
+     */
+    public CompositeCondition visible(By locator) {
+        return add("visible", null, locator, "visible " + locator);
+    }
+
+    private CompositeCondition add(String type, String value, By locator, String name) {
+        Map<String, Object> check = new HashMap<>();
+        check.put("type", type);
+        check.put("value", value);
+        if (locator != null) {
+            putLocator(check, locator);
+        }
+        checks.add(check);
+        names.add(name);
+        return this;
+    }
+
+    /**
+     * Stores the locator as "using" (xpath or css) and "value" for the injected scripts of
+     * this package, which resolve it with document.evaluate or querySelectorAll.
+     */
+    static void putLocator(Map<String, Object> target, By locator) {
+        if (!(locator instanceof By.Remotable)) {
+            throw new IllegalArgumentException("Locator cannot be evaluated in a script: " + locator);
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+        if (!parameters.using().equals("xpath") && !parameters.using().equals("css selector")) {
+            throw new IllegalArgumentException("Only xpath and CSS based locators are supported: " + locator);
+        }
+        target.put("using", parameters.using().equals("xpath") ? "xpath" : "css");
+        target.put("value", String.valueOf(parameters.value()));
+    }
+
+    List<Map<String, Object>> getChecks() {
+        return checks;
+    }
+
+    List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Short, stable description used as the adaptive-wait key.
+     */
+    String signature() {
+        StringBuilder signature = new StringBuilder("all");
+        for (Map<String, Object> check : checks) {
+            signature.append(':').append(check.get("type"));
+        }
+        return signature.toString();
+    }
+
+    /**
+     * Outcome of a composite wait.
+     */
+    public static class Result {
+        private final boolean satisfied;
+        private final String lastSatisfied;
+        private final List<String> pending;
+        private final long[] becameTrueMillis;
+        private final List<Long> counts;
+        private final String url;
+        private final long elapsedMillis;
+
+        Result(boolean satisfied, String lastSatisfied, List<String> pending, long[] becameTrueMillis,
+               List<Long> counts, String url, long elapsedMillis) {
+            this.satisfied = satisfied;
+            this.lastSatisfied = lastSatisfied;
+            this.pending = Collections.unmodifiableList(pending);
+            this.becameTrueMillis = becameTrueMillis;
+            this.counts = counts;
+            this.url = url;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public boolean isSatisfied() {
+            return satisfied;
+        }
+
+        /**
+         * The condition that became true last, or null when the wait timed out.
+         */
+        public String getLastSatisfied() {
+            return lastSatisfied;
+        }
+
+        /**
+         * Conditions still false when the wait timed out.
+         */
+        public List<String> getPending() {
+            return pending;
+        }
+
+        /**
+         * Elements matched by the index-th condition at the last poll, or -1 for conditions without a locator.
+         */
+        public long getMatchCount(int index) {
+            return index < counts.size() ? counts.get(index) : -1;
+        }
+
+        /**
+         * The page URL at the last poll, or null if the page could never be queried.
+         */
+        public String getUrl() {
+            return url;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            if (!satisfied) {
+                return "timed out after " + elapsedMillis + "ms waiting for " + pending;
+            }
+            return "satisfied in " + elapsedMillis + "ms, last condition: " + lastSatisfied
+                    + " (became true at " + Arrays.toString(becameTrueMillis) + "ms)";
+        }
+    }
+}
@@ -10,6 +10,7 @@ import java.util.Properties;
 public class ConfigReader {
     private static Properties properties;
     private static final String CONFIG_FILE_PATH = "src/test/resources/config.properties";
+    private static volatile TimeoutProfile timeouts;
 
     static {
         try {
@@ -23,19 +24,63 @@ public class ConfigReader {
         }
     }
 
+    /**
+     * System properties (-Dkey=value) override config.properties, so CI can tune a run
+     * without editing the file.
+     */
     public static String getProperty(String key) {
-        return properties.getProperty(key);
+        return System.getProperty(key, properties.getProperty(key));
+    }
+
+    public static String getProperty(String key, String defaultValue) {
+        String value = getProperty(key);
+        return (value == null || value.trim().isEmpty()) ? defaultValue : value.trim();
+    }
+
+    public static int getIntProperty(String key, int defaultValue) {
+        String value = getProperty(key, null);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    public static long getLongProperty(String key, long defaultValue) {
+        String value = getProperty(key, null);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+
+    public static boolean getBooleanProperty(String key, boolean defaultValue) {
+        String value = getProperty(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Timeouts and polling intervals in effect: the configured values until
+     * calibrateTimeouts() has run.
+     */
+    public static TimeoutProfile getTimeouts() {
+        if (timeouts == null) {
+            timeouts = TimeoutProfile.configured();
+        }
+        return timeouts;
+    }
+
+    /**
+     * Probes base.url and switches to the matching timeout profile (see TimeoutProfile).
+     * Called once at suite start, before any browser is started.
+     */
+    public static TimeoutProfile calibrateTimeouts() {
+        timeouts = TimeoutProfile.calibrate();
+        return timeouts;
     }
 
     public static String getBaseUrl() {
-        return properties.getProperty("base.url");
+        return getProperty("base.url");
     }
 
     public static String getTestEmail() {
-        return properties.getProperty("test.email");
+        return getProperty("test.email");
     }
 
     public static String getTestPassword() {
-        return properties.getProperty("test.password");
+        return getProperty("test.password");
     }
 }
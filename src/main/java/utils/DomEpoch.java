@@ -0,0 +1,155 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * DomEpoch - Tells cached element lookups whether the page they were resolved on is still
+ * the one in the browser.
+ *
+ * The page carries a marker: a random id stored on the document (so every navigation gets
+ * a new one), a count of element insertions and removals seen by a MutationObserver and
+ * the document's readyState. Reading it costs a script call, so it is only re-read after a
+ * command that may have changed the page; as long as only read-only commands (finds,
+ * getText, getAttribute, ...) run, current() answers without a round trip. Changes the page
+ * makes on its own between two read-only commands are not seen; stale handles are retried
+ * by ElementCache.
+ *
+ * A command that may start a navigation (click, submit, typing, get, back, a script that
+ * clicks or sets location) returns before the next page is there when the page load
+ * strategy does not wait, so the old document still answers the marker read. After such a
+ * command every current() call reads the marker again, until a different document reports
+ * readyState complete or the next navigating command starts over. Clicks that do not
+ * navigate therefore cost one script call per cached lookup until then.
+ *
+ * Each driver gets its own instance, registered by DriverManager as a listener of the
+ * decorated driver.
+ */
+public class DomEpoch implements WebDriverListener {
+    private static final String MARKER_SCRIPT =
+            "var e = document.__harnessEpoch;"
+            + "if (!e) {"
+            + "  e = document.__harnessEpoch = {id: Math.random().toString(36).slice(2), n: 0};"
+            + "  new MutationObserver(function (records) {"
+            + "    for (var i = 0; i < records.length; i++) {"
+            + "      var nodes = Array.from(records[i].addedNodes).concat(Array.from(records[i].removedNodes));"
+            + "      if (nodes.some(function (node) { return node.nodeType === 1; })) { e.n++; return; }"
+            + "    }"
+            + "  }).observe(document, {childList: true, subtree: true});"
+            + "}"
+            + "return e.id + ':' + e.n + ':' + document.readyState;";
+
+    // Commands that never change the page; everything else (clicks, typing, navigation,
+    // scripts, actions, window switches) may, and forces the marker to be re-read
+    private static final Set<String> READ_ONLY = new HashSet<>(Arrays.asList(
+            "findElement", "findElements", "getText", "getAttribute", "getDomAttribute", "getDomProperty",
+            "getCssValue", "isDisplayed", "isEnabled", "isSelected", "getTagName", "getLocation", "getSize",
+            "getRect", "getAccessibleName", "getAriaRole", "getShadowRoot", "getCurrentUrl", "getTitle",
+            "getPageSource", "getWindowHandle", "getWindowHandles", "getScreenshotAs", "getWrappedDriver",
+            "getWrappedElement", "getCoordinates", "manage", "navigate", "switchTo", "timeouts", "window",
+            "getCookies", "getCookieNamed", "toString", "hashCode", "equals"));
+
+    // Commands after which the browser may still be on its way to another document
+    private static final Set<String> NAVIGATING = new HashSet<>(Arrays.asList(
+            "click", "submit", "sendKeys", "get", "to", "back", "forward", "refresh", "perform"));
+    private static final Pattern NAVIGATING_SCRIPT = Pattern.compile(
+            "\\.click\\(|\\.submit\\(|location(\\.href)?\\s*=[^=]|location\\.(assign|replace|reload)|history\\.(back|forward|go)");
+
+    private static final Map<WebDriver, DomEpoch> epochs = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private WebDriver rawDriver;
+    private long commandEpoch;
+    private long verifiedEpoch = -1;
+    private String marker;
+    private long unknownPages;
+    private boolean navigating;
+    private String leftDocument;
+
+    /**
+     * Links the epoch to the decorated driver the page objects use. Marker reads go to the
+     * undecorated driver so they do not count as page-changing commands themselves.
+     */
+    public void attach(WebDriver decorated) {
+        rawDriver = ImplicitWaitMonitor.unwrap(decorated);
+        epochs.put(decorated, this);
+    }
+
+    /**
+     * The epoch of the driver, or null when it was not decorated with one.
+     */
+    public static DomEpoch of(WebDriver driver) {
+        return epochs.get(driver);
+    }
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        String name = method.getName();
+        // window() is read-only on Options but switches windows on TargetLocator
+        if (!READ_ONLY.contains(name) || (name.equals("window") && args != null && args.length > 0)) {
+            if (NAVIGATING.contains(name) || (name.startsWith("execute") && args != null && args.length > 0
+                    && args[0] instanceof String && NAVIGATING_SCRIPT.matcher((String) args[0]).find())) {
+                markNavigating();
+            }
+            markChanged();
+        }
+    }
+
+    /**
+     * Notes the document the browser is on before a command that may leave it.
+     */
+    private synchronized void markNavigating() {
+        navigating = true;
+        try {
+            leftDocument = documentId(readMarker());
+        } catch (WebDriverException e) {
+            leftDocument = null;
+        }
+    }
+
+    public synchronized void markChanged() {
+        commandEpoch++;
+    }
+
+    /**
+     * The page marker, re-read if a page-changing command ran since the last read or a
+     * navigation may still be under way.
+     */
+    public synchronized String current() {
+        if (!navigating && verifiedEpoch == commandEpoch && marker != null) {
+            return marker;
+        }
+        long epoch = commandEpoch;
+        try {
+            marker = readMarker();
+            if (navigating && marker.endsWith(":complete") && !documentId(marker).equals(leftDocument)) {
+                navigating = false;
+            }
+            verifiedEpoch = navigating ? -1 : epoch;
+        } catch (WebDriverException e) {
+            // Page in transition: treat it as a new page and ask again next time
+            marker = "unknown:" + (++unknownPages);
+            verifiedEpoch = -1;
+        }
+        return marker;
+    }
+
+    private String readMarker() {
+        return String.valueOf(((JavascriptExecutor) rawDriver).executeScript(MARKER_SCRIPT));
+    }
+
+    private static String documentId(String marker) {
+        int colon = marker.indexOf(':');
+        return colon < 0 ? marker : marker.substring(0, colon);
+    }
+}
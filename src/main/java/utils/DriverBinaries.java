@@ -0,0 +1,90 @@
+package utils;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.edge.EdgeDriverService;
+import org.openqa.selenium.firefox.GeckoDriverService;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DriverBinaries - Resolves each browser driver binary once per JVM.
+ *
+ * Online, WebDriverManager resolves the driver for the installed browser version and keeps it
+ * in its local cache, so later runs are served from disk. Offline, a pinned local binary is used
+ * and neither WebDriverManager nor Selenium Manager is invoked, so no socket is ever opened.
+ */
+public class DriverBinaries {
+    private static final Map<String, String> resolvedPaths = new ConcurrentHashMap<>();
+
+    /**
+     * Makes sure the driver for the browser is resolved and exported through the
+     * webdriver.*.driver system property. Only the first call per browser does any work.
+     */
+    public static String ensureResolved(String browser) {
+        return resolvedPaths.computeIfAbsent(browser, DriverBinaries::resolve);
+    }
+
+    private static String resolve(String browser) {
+        long start = System.currentTimeMillis();
+        String pinnedPath = ConfigReader.getProperty("driver.path." + browser, null);
+        boolean offline = ConfigReader.getBooleanProperty("driver.offline", false);
+        String path;
+
+        if (pinnedPath != null) {
+            File binary = new File(pinnedPath);
+            if (!binary.canExecute()) {
+                throw new IllegalStateException("Pinned driver for " + browser + " is missing or not executable: " + pinnedPath);
+            }
+            path = binary.getAbsolutePath();
+        } else if (offline) {
+            throw new IllegalStateException("driver.offline=true requires driver.path." + browser + " to be set");
+        } else {
+            WebDriverManager manager = managerFor(browser);
+            String cachePath = ConfigReader.getProperty("driver.cache.path", null);
+            if (cachePath != null) {
+                manager.cachePath(cachePath);
+            }
+            String browserVersion = ConfigReader.getProperty("browser.version", null);
+            if (browserVersion != null) {
+                manager.browserVersion(browserVersion);
+            }
+            manager.config().setTtl(ConfigReader.getIntProperty("driver.cache.ttl.hours", 24) * 3600);
+            manager.setup();
+            path = manager.getDownloadedDriverPath();
+        }
+
+        System.setProperty(driverProperty(browser), path);
+        System.out.println("[DRIVER] Resolved " + browser + " driver in "
+                + (System.currentTimeMillis() - start) + "ms: " + path);
+        return path;
+    }
+
+    private static WebDriverManager managerFor(String browser) {
+        switch (browser) {
+            case "chrome":
+                return WebDriverManager.chromedriver();
+            case "firefox":
+                return WebDriverManager.firefoxdriver();
+            case "edge":
+                return WebDriverManager.edgedriver();
+            default:
+                throw new IllegalArgumentException("Browser not supported: " + browser);
+        }
+    }
+
+    private static String driverProperty(String browser) {
+        switch (browser) {
+            case "chrome":
+                return ChromeDriverService.CHROME_DRIVER_EXE_PROPERTY;
+            case "firefox":
+                return GeckoDriverService.GECKO_DRIVER_EXE_PROPERTY;
+            case "edge":
+                return EdgeDriverService.EDGE_DRIVER_EXE_PROPERTY;
+            default:
+                throw new IllegalArgumentException("Browser not supported: " + browser);
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package utils;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
@@ -8,74 +7,290 @@ import org.openqa.selenium.edge.EdgeDriver;
 import org.openqa.selenium.edge.EdgeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
 
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * DriverManager - Menaxhon instancat e WebDriver (Factory Pattern)
  */
 public class DriverManager {
     private static ThreadLocal<WebDriver> driver = new ThreadLocal<>();
+    private static volatile DriverPool pool;
+    private static volatile BrowserContextManager contexts;
+    private static boolean shutdownHookRegistered;
+    private static final Map<String, WebDriver> parkedDrivers = new ConcurrentHashMap<>();
 
     public static WebDriver getDriver() {
         if (driver.get() == null) {
-            driver.set(createDriver());
+            switch (getMode()) {
+                case "pool":
+                    driver.set(getPool().lease());
+                    break;
+                case "context":
+                    driver.set(getContexts().open());
+                    break;
+                default:
+                    driver.set(createDriver());
+            }
         }
         return driver.get();
     }
 
+    /**
+     * Returns the current thread's driver without creating one, or null.
+     */
+    public static WebDriver getCurrentDriver() {
+        return driver.get();
+    }
+
+    /**
+     * Detaches the current thread's session and keeps it under the given key, so a
+     * dependent test (possibly on another thread) can continue in the same browser.
+     */
+    public static void parkDriver(String key) {
+        WebDriver current = driver.get();
+        if (current != null) {
+            driver.remove();
+            WebDriver previous = parkedDrivers.put(key, current);
+            if (previous != null && previous != current) {
+                release(previous);
+            }
+        }
+    }
+
+    /**
+     * Makes a parked session the current thread's driver.
+     *
+     * @return false when nothing is parked under the key
+     */
+    public static boolean adoptParkedDriver(String key) {
+        WebDriver parked = parkedDrivers.remove(key);
+        if (parked == null) {
+            return false;
+        }
+        quitDriver();
+        driver.set(parked);
+        return true;
+    }
+
+    private static String getMode() {
+        return ConfigReader.getProperty("driver.mode", "local").toLowerCase();
+    }
+
+    private static DriverPool getPool() {
+        if (pool == null) {
+            synchronized (DriverManager.class) {
+                if (pool == null) {
+                    pool = new DriverPool(
+                            DriverManager::createDriver,
+                            ConfigReader.getIntProperty("pool.size", 2),
+                            ConfigReader.getIntProperty("pool.max.uses", 20),
+                            Duration.ofMinutes(ConfigReader.getLongProperty("pool.max.age.minutes", 30)),
+                            Duration.ofSeconds(ConfigReader.getLongProperty("pool.lease.timeout", 120))
+                    );
+                    registerShutdownHook();
+                }
+            }
+        }
+        return pool;
+    }
+
+    private static BrowserContextManager getContexts() {
+        if (contexts == null) {
+            synchronized (DriverManager.class) {
+                if (contexts == null) {
+                    contexts = new BrowserContextManager(DriverManager::createDriver);
+                    registerShutdownHook();
+                }
+            }
+        }
+        return contexts;
+    }
+
+    private static void registerShutdownHook() {
+        if (!shutdownHookRegistered) {
+            shutdownHookRegistered = true;
+            Runtime.getRuntime().addShutdownHook(new Thread(DriverManager::shutdown));
+        }
+    }
+
+    /**
+     * Launches the configured number of pooled browsers ahead of the first test.
+     * Does nothing outside pool mode.
+     */
+    public static void warmUp() {
+        if (getMode().equals("pool")) {
+            getPool().prewarm(ConfigReader.getIntProperty("pool.prewarm", 1));
+        }
+    }
+
     private static WebDriver createDriver() {
         String browser = ConfigReader.getProperty("browser").toLowerCase();
+        String browserBinary = ConfigReader.getProperty("browser.binary.path", null);
+        // In remote mode the hub owns the driver processes and browser slots
+        boolean remote = getMode().equals("remote");
         WebDriver webDriver;
 
+        if (!remote) {
+            DriverBinaries.ensureResolved(browser);
+        }
+
         switch (browser) {
             case "chrome":
-                WebDriverManager.chromedriver().setup();
-                ChromeOptions chromeOptions = new ChromeOptions();
-                chromeOptions.addArguments("--start-maximized");
-                chromeOptions.addArguments("--disable-notifications");
-                chromeOptions.addArguments("--remote-allow-origins=*");
-                chromeOptions.addArguments("--no-sandbox");
-                chromeOptions.addArguments("--disable-dev-shm-usage");
-                chromeOptions.addArguments("--disable-gpu");
-                chromeOptions.addArguments("--disable-blink-features=AutomationControlled");
-                chromeOptions.setPageLoadStrategy(org.openqa.selenium.PageLoadStrategy.NONE);
-                webDriver = new ChromeDriver(chromeOptions);
+                ChromeOptions chromeOptions = buildChromeOptions(browserBinary);
+                if (ChromeProfileTemplate.isEnabled() && !remote) {
+                    Path profileDir = ChromeProfileTemplate.newSessionProfile(templateDir -> {
+                        ChromeOptions templateOptions = buildChromeOptions(browserBinary);
+                        templateOptions.addArguments("--user-data-dir=" + templateDir);
+                        return new ChromeDriver(templateOptions);
+                    });
+                    chromeOptions.addArguments("--user-data-dir=" + profileDir);
+                }
+                webDriver = remote ? HubClient.createDriver(browser, chromeOptions) : new ChromeDriver(chromeOptions);
                 break;
 
             case "firefox":
-                WebDriverManager.firefoxdriver().setup();
                 FirefoxOptions firefoxOptions = new FirefoxOptions();
+                if (browserBinary != null) {
+                    firefoxOptions.setBinary(browserBinary);
+                }
                 firefoxOptions.addArguments("--start-maximized");
-                webDriver = new FirefoxDriver(firefoxOptions);
+                webDriver = remote ? HubClient.createDriver(browser, firefoxOptions) : new FirefoxDriver(firefoxOptions);
                 break;
 
             case "edge":
-                WebDriverManager.edgedriver().setup();
                 EdgeOptions edgeOptions = new EdgeOptions();
+                if (browserBinary != null) {
+                    edgeOptions.setBinary(browserBinary);
+                }
                 edgeOptions.addArguments("--start-maximized");
-                webDriver = new EdgeDriver(edgeOptions);
+                webDriver = remote ? HubClient.createDriver(browser, edgeOptions) : new EdgeDriver(edgeOptions);
                 break;
 
             default:
                 throw new IllegalArgumentException("Browser not supported: " + browser);
         }
 
-        webDriver.manage().timeouts().implicitlyWait(
-                Duration.ofSeconds(Long.parseLong(ConfigReader.getProperty("implicit.wait")))
-        );
+        applyTimeouts(webDriver);
 
-        webDriver.manage().timeouts().pageLoadTimeout(
-                Duration.ofSeconds(Long.parseLong(ConfigReader.getProperty("page.load.timeout")))
-        );
+        return decorate(webDriver);
+    }
 
-        return webDriver;
+    /**
+     * Wraps the driver with the listeners that observe its commands: the implicit-wait stall
+     * report and the DOM epoch behind the element cache.
+     */
+    private static WebDriver decorate(WebDriver webDriver) {
+        List<WebDriverListener> listeners = new ArrayList<>();
+        if (ImplicitWaitMonitor.isEnabled()) {
+            listeners.add(new ImplicitWaitMonitor());
+        }
+        DomEpoch epoch = ElementCache.isEnabled() ? new DomEpoch() : null;
+        if (epoch != null) {
+            listeners.add(epoch);
+        }
+        if (listeners.isEmpty()) {
+            return webDriver;
+        }
+
+        WebDriver decorated = new EventFiringDecorator<>(listeners.toArray(new WebDriverListener[0])).decorate(webDriver);
+        if (epoch != null) {
+            epoch.attach(decorated);
+        }
+        return decorated;
+    }
+
+    private static ChromeOptions buildChromeOptions(String browserBinary) {
+        ChromeOptions chromeOptions = new ChromeOptions();
+        if (browserBinary != null) {
+            chromeOptions.setBinary(browserBinary);
+        }
+        chromeOptions.addArguments("--start-maximized");
+        chromeOptions.addArguments("--disable-notifications");
+        chromeOptions.addArguments("--remote-allow-origins=*");
+        chromeOptions.addArguments("--no-sandbox");
+        chromeOptions.addArguments("--disable-dev-shm-usage");
+        chromeOptions.addArguments("--disable-gpu");
+        chromeOptions.addArguments("--disable-blink-features=AutomationControlled");
+        chromeOptions.addArguments("--no-first-run");
+        chromeOptions.addArguments("--no-default-browser-check");
+        chromeOptions.setPageLoadStrategy(org.openqa.selenium.PageLoadStrategy.NONE);
+        return chromeOptions;
+    }
+
+    /**
+     * The implicit wait applied to new sessions: zero in explicit-only mode, where page
+     * objects wait through WaitHelper and a missing element is reported at once.
+     */
+    public static Duration getImplicitWait() {
+        if (ConfigReader.getBooleanProperty("explicit.only", false)) {
+            return Duration.ZERO;
+        }
+        return ConfigReader.getTimeouts().getImplicitWait();
+    }
+
+    static void applyTimeouts(WebDriver webDriver) {
+        webDriver.manage().timeouts().implicitlyWait(getImplicitWait());
+
+        webDriver.manage().timeouts().pageLoadTimeout(ConfigReader.getTimeouts().getPageLoadTimeout());
     }
 
+    /**
+     * Ends the current thread's session. In pool mode the browser is reset and
+     * returned to the pool; in context mode only the browser context is disposed;
+     * in remote mode the browser slot goes back to the session hub.
+     */
     public static void quitDriver() {
-        if (driver.get() != null) {
-            driver.get().quit();
+        WebDriver current = driver.get();
+        if (current != null) {
             driver.remove();
+            release(current);
+        }
+    }
+
+    private static void release(WebDriver webDriver) {
+        switch (getMode()) {
+            case "pool":
+                getPool().release(webDriver);
+                break;
+            case "context":
+                getContexts().close(webDriver);
+                break;
+            case "remote":
+                HubClient.release(webDriver);
+                break;
+            default:
+                webDriver.quit();
+        }
+    }
+
+    /**
+     * Releases sessions nobody adopted, then closes every idle pooled browser and every
+     * context host browser. Pooled sessions still leased are quit when they are returned.
+     */
+    public static void shutdown() {
+        for (String key : parkedDrivers.keySet()) {
+            WebDriver parked = parkedDrivers.remove(key);
+            if (parked != null) {
+                try {
+                    release(parked);
+                } catch (Exception e) {
+                    // Browser already gone
+                }
+            }
+        }
+        if (pool != null) {
+            pool.shutdown();
+        }
+        if (contexts != null) {
+            contexts.shutdown();
         }
     }
 }
@@ -0,0 +1,302 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * DriverPool - Bounded pool of warm WebDriver sessions with lease/return semantics.
+ * Sessions are reset between leases and evicted when unhealthy, too old or used too often.
+ */
+public class DriverPool {
+    private final Supplier<WebDriver> factory;
+    private final int maxSize;
+    private final int maxUses;
+    private final Duration maxAge;
+    private final Duration leaseTimeout;
+
+    private final Object lock = new Object();
+    private final Deque<PooledDriver> idle = new ArrayDeque<>();
+    private final Map<WebDriver, PooledDriver> leased = new ConcurrentHashMap<>();
+    private int liveCount;
+    private boolean closed;
+
+    public DriverPool(Supplier<WebDriver> factory, int maxSize, int maxUses, Duration maxAge, Duration leaseTimeout) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1, was: " + maxSize);
+        }
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.maxUses = maxUses;
+        this.maxAge = maxAge;
+        this.leaseTimeout = leaseTimeout;
+    }
+
+    /**
+     * Takes a healthy driver from the pool, launching a new browser only when no idle one
+     * is available and the pool is below its size limit. Blocks up to the lease timeout otherwise.
+     */
+    public WebDriver lease() {
+        long deadline = System.nanoTime() + leaseTimeout.toNanos();
+
+        while (true) {
+            PooledDriver candidate = null;
+            boolean mustCreate = false;
+
+            synchronized (lock) {
+                while (!closed && idle.isEmpty() && liveCount >= maxSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new IllegalStateException("Timed out after " + leaseTimeout.getSeconds()
+                                + "s waiting for a pooled driver (pool size " + maxSize + ")");
+                    }
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while waiting for a pooled driver", e);
+                    }
+                }
+                if (closed) {
+                    throw new IllegalStateException("Driver pool has been shut down");
+                }
+                if (!idle.isEmpty()) {
+                    candidate = idle.pollFirst();
+                } else {
+                    liveCount++;
+                    mustCreate = true;
+                }
+            }
+
+            if (mustCreate) {
+                candidate = launch();
+            } else if (!isReusable(candidate)) {
+                destroy(candidate);
+                continue;
+            }
+
+            candidate.uses++;
+            leased.put(candidate.driver, candidate);
+            return candidate.driver;
+        }
+    }
+
+    /**
+     * Returns a leased driver to the pool. The session is reset first; if the reset fails
+     * or the driver has reached its age/use limit it is quit instead.
+     */
+    public void release(WebDriver driver) {
+        PooledDriver pooled = leased.remove(driver);
+        if (pooled == null) {
+            quietlyQuit(driver);
+            return;
+        }
+
+        if (isExpired(pooled) || !reset(pooled.driver)) {
+            destroy(pooled);
+            return;
+        }
+
+        boolean returned;
+        synchronized (lock) {
+            returned = !closed;
+            if (returned) {
+                idle.addFirst(pooled);
+            } else {
+                liveCount--;
+            }
+            lock.notifyAll();
+        }
+        if (!returned) {
+            quietlyQuit(pooled.driver);
+        }
+    }
+
+    /**
+     * Removes a leased driver from the pool without reusing it (e.g. after a browser crash).
+     */
+    public void discard(WebDriver driver) {
+        PooledDriver pooled = leased.remove(driver);
+        if (pooled != null) {
+            destroy(pooled);
+        } else {
+            quietlyQuit(driver);
+        }
+    }
+
+    /**
+     * Launches browsers up front so the first tests do not pay the start-up cost.
+     * The browsers start concurrently, so warming N of them takes about as long as one.
+     */
+    public void prewarm(int count) {
+        int target = Math.min(count, maxSize);
+        int toLaunch;
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            toLaunch = Math.max(0, target - liveCount);
+            liveCount += toLaunch;
+        }
+
+        List<Callable<Void>> launches = new ArrayList<>();
+        for (int i = 0; i < toLaunch; i++) {
+            launches.add(() -> {
+                PooledDriver pooled = launch();
+                boolean added;
+                synchronized (lock) {
+                    added = !closed;
+                    if (added) {
+                        idle.addLast(pooled);
+                    } else {
+                        liveCount--;
+                    }
+                    lock.notifyAll();
+                }
+                if (!added) {
+                    quietlyQuit(pooled.driver);
+                }
+                return null;
+            });
+        }
+        HarnessExecutors.invokeAll(launches);
+    }
+
+    public void shutdown() {
+        List<PooledDriver> toQuit;
+        synchronized (lock) {
+            closed = true;
+            toQuit = new ArrayList<>(idle);
+            idle.clear();
+            liveCount -= toQuit.size();
+            lock.notifyAll();
+        }
+        List<Callable<Void>> quits = new ArrayList<>();
+        for (PooledDriver pooled : toQuit) {
+            quits.add(() -> {
+                quietlyQuit(pooled.driver);
+                return null;
+            });
+        }
+        HarnessExecutors.invokeAll(quits);
+    }
+
+    private PooledDriver launch() {
+        try {
+            return new PooledDriver(factory.get());
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                liveCount--;
+                lock.notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    private void destroy(PooledDriver pooled) {
+        quietlyQuit(pooled.driver);
+        synchronized (lock) {
+            liveCount--;
+            lock.notifyAll();
+        }
+    }
+
+    private boolean isExpired(PooledDriver pooled) {
+        boolean tooOld = System.nanoTime() - pooled.createdAt > maxAge.toNanos();
+        boolean overused = maxUses > 0 && pooled.uses >= maxUses;
+        return tooOld || overused;
+    }
+
+    private boolean isReusable(PooledDriver pooled) {
+        return !isExpired(pooled) && isHealthy(pooled.driver);
+    }
+
+    private boolean isHealthy(WebDriver driver) {
+        try {
+            return !driver.getWindowHandles().isEmpty();
+        } catch (Exception e) {
+            System.out.println("[POOL] Evicting unhealthy driver: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Clears everything a previous test could leak into the next one:
+     * extra windows, cookies, web storage and per-test timeout overrides.
+     */
+    private boolean reset(WebDriver driver) {
+        try {
+            Set<String> handles = driver.getWindowHandles();
+            String keep = handles.iterator().next();
+            for (String handle : handles) {
+                if (!handle.equals(keep)) {
+                    driver.switchTo().window(handle);
+                    driver.close();
+                }
+            }
+            driver.switchTo().window(keep);
+
+            try {
+                ((JavascriptExecutor) driver).executeScript(
+                        "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+            } catch (Exception e) {
+                // No document with storage access (e.g. about:blank)
+            }
+
+            if (driver instanceof HasCdp) {
+                HasCdp cdp = (HasCdp) driver;
+                cdp.executeCdpCommand("Network.clearBrowserCookies", new HashMap<>());
+                Map<String, Object> params = new HashMap<>();
+                params.put("origin", originOf(ConfigReader.getBaseUrl()));
+                params.put("storageTypes", "all");
+                cdp.executeCdpCommand("Storage.clearDataForOrigin", params);
+            } else {
+                driver.manage().deleteAllCookies();
+            }
+
+            DriverManager.applyTimeouts(driver);
+            driver.get("about:blank");
+            return true;
+        } catch (Exception e) {
+            System.out.println("[POOL] Reset failed, evicting driver: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static String originOf(String url) {
+        URI uri = URI.create(url);
+        return uri.getScheme() + "://" + uri.getAuthority();
+    }
+
+    private static void quietlyQuit(WebDriver driver) {
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            // Browser already gone
+        }
+    }
+
+    private static final class PooledDriver {
+        private final WebDriver driver;
+        private final long createdAt = System.nanoTime();
+        private int uses;
+
+        private PooledDriver(WebDriver driver) {
+            this.driver = driver;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Locatable;
+import org.openqa.selenium.support.PageFactory;
+import org.openqa.selenium.support.pagefactory.Annotations;
+import org.openqa.selenium.support.pagefactory.DefaultFieldDecorator;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+/**
+ * ElementCache - PageFactory fields that resolve their locator once per page state instead
+ * of on every access.
+ *
+ * A resolved element or list is reused while the DomEpoch marker of the driver is unchanged,
+ * so loops like productItems.get(i) in a row of read-only calls cost no extra lookups; after
+ * a navigation or a change to the page's elements the field is looked up again. A stale
+ * element is looked up again once before the error is passed on.
+ *
+ * Used by BasePage when element.cache=true and the driver carries a DomEpoch; otherwise
+ * fields behave exactly like plain PageFactory fields.
+ */
+public class ElementCache {
+
+    public static boolean isEnabled() {
+        return ConfigReader.getBooleanProperty("element.cache", false);
+    }
+
+    /**
+     * Initialises the page's @FindBy fields, cached when the driver supports it.
+     */
+    public static void initElements(WebDriver driver, Object page) {
+        DomEpoch epoch = isEnabled() ? DomEpoch.of(driver) : null;
+        if (epoch == null) {
+            PageFactory.initElements(driver, page);
+            return;
+        }
+        PageFactory.initElements(new Decorator(driver, epoch), page);
+    }
+
+    /**
+     * Locator that keeps its last result together with the page marker it was found on.
+     */
+    static final class CachingLocator implements ElementLocator {
+        private final SearchContext searchContext;
+        private final By by;
+        private final DomEpoch epoch;
+        private final boolean lookupCached;
+
+        private WebElement element;
+        private String elementMarker;
+        private List<WebElement> elements;
+        private String elementsMarker;
+
+        CachingLocator(SearchContext searchContext, By by, DomEpoch epoch, boolean lookupCached) {
+            this.searchContext = searchContext;
+            this.by = by;
+            this.epoch = epoch;
+            this.lookupCached = lookupCached;
+        }
+
+        @Override
+        public synchronized WebElement findElement() {
+            // @CacheLookup fields keep their element for good, as with plain PageFactory
+            String marker = lookupCached ? "" : epoch.current();
+            if (element == null || !marker.equals(elementMarker)) {
+                element = searchContext.findElement(by);
+                elementMarker = marker;
+            }
+            return element;
+        }
+
+        @Override
+        public synchronized List<WebElement> findElements() {
+            String marker = lookupCached ? "" : epoch.current();
+            if (elements == null || !marker.equals(elementsMarker)) {
+                elements = searchContext.findElements(by);
+                elementsMarker = marker;
+            }
+            return elements;
+        }
+
+        synchronized void invalidate() {
+            element = null;
+            elements = null;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + " '" + by + "'";
+        }
+    }
+
+    private static final class Decorator extends DefaultFieldDecorator {
+
+        private Decorator(WebDriver driver, DomEpoch epoch) {
+            super(field -> {
+                Annotations annotations = new Annotations(field);
+                return new CachingLocator(driver, annotations.buildBy(), epoch, annotations.isLookupCached());
+            });
+        }
+
+        @Override
+        protected WebElement proxyForLocator(ClassLoader loader, ElementLocator locator) {
+            return (WebElement) Proxy.newProxyInstance(loader,
+                    new Class<?>[]{WebElement.class, WrapsElement.class, Locatable.class},
+                    new ElementHandler((CachingLocator) locator));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected List<WebElement> proxyForListLocator(ClassLoader loader, ElementLocator locator) {
+            return (List<WebElement>) Proxy.newProxyInstance(loader, new Class<?>[]{List.class},
+                    (proxy, method, args) -> {
+                        try {
+                            return method.invoke(locator.findElements(), args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+
+    private static final class ElementHandler implements InvocationHandler {
+        private final CachingLocator locator;
+
+        private ElementHandler(CachingLocator locator) {
+            this.locator = locator;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            boolean retried = false;
+            while (true) {
+                WebElement element;
+                try {
+                    element = locator.findElement();
+                } catch (NoSuchElementException e) {
+                    if ("toString".equals(method.getName())) {
+                        return "Proxy element for: " + locator;
+                    }
+                    throw e;
+                }
+
+                if ("getWrappedElement".equals(method.getName())) {
+                    return element;
+                }
+                try {
+                    return method.invoke(element, args);
+                } catch (InvocationTargetException e) {
+                    if (e.getCause() instanceof StaleElementReferenceException && !retried) {
+                        // The page changed without a command we could see: look the element up again
+                        locator.invalidate();
+                        retried = true;
+                        continue;
+                    }
+                    throw e.getCause();
+                }
+            }
+        }
+    }
+}
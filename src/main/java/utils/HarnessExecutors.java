@@ -0,0 +1,129 @@
+package utils;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HarnessExecutors - Runs the harness' blocking I/O (browser start-up, browser shutdown,
+ * screenshot and report writes) off the test threads.
+ *
+ * With harness.virtual.threads=true on Java 21+ (the java21 Maven profile) every task gets
+ * its own virtual thread; otherwise a cached pool of daemon platform threads is used.
+ * The virtual-thread factory is looked up reflectively so the code still compiles for Java 11.
+ */
+public class HarnessExecutors {
+    private static volatile ExecutorService executor;
+    private static final Set<Future<?>> background = ConcurrentHashMap.newKeySet();
+
+    public static ExecutorService get() {
+        if (executor == null) {
+            synchronized (HarnessExecutors.class) {
+                if (executor == null) {
+                    executor = create();
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Runs the tasks concurrently and waits for all of them. If any task failed, the
+     * first failure is rethrown after the others have finished.
+     */
+    public static <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        List<Future<T>> futures = new ArrayList<>();
+        for (Callable<T> task : tasks) {
+            futures.add(get().submit(task));
+        }
+
+        List<T> results = new ArrayList<>();
+        RuntimeException failure = null;
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    Throwable cause = e.getCause();
+                    failure = cause instanceof RuntimeException
+                            ? (RuntimeException) cause : new IllegalStateException(cause);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for harness tasks", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    /**
+     * Starts a fire-and-forget task that awaitBackground() will wait for, e.g. writing a
+     * screenshot the report links to.
+     */
+    public static void runInBackground(Runnable task) {
+        CompletableFuture<Void> future = CompletableFuture.runAsync(task, get());
+        background.add(future);
+        future.whenComplete((ignored, error) -> {
+            background.remove(future);
+            if (error != null) {
+                System.out.println("[EXECUTOR] Background task failed: " + error.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Waits until every background task has finished, or the timeout has passed.
+     */
+    public static void awaitBackground(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (Future<?> future : new ArrayList<>(background)) {
+            try {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                // Already logged when the task completed
+            } catch (TimeoutException e) {
+                System.out.println("[EXECUTOR] " + background.size() + " background tasks still running after " + timeout.getSeconds() + "s");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static ExecutorService create() {
+        if (ConfigReader.getBooleanProperty("harness.virtual.threads", false)) {
+            try {
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                ExecutorService service = (ExecutorService) factory.invoke(null);
+                System.out.println("[EXECUTOR] Running harness I/O on virtual threads");
+                return service;
+            } catch (ReflectiveOperationException e) {
+                System.out.println("[EXECUTOR] Virtual threads need Java 21+, using platform threads on Java "
+                        + System.getProperty("java.version"));
+            }
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "harness-io-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
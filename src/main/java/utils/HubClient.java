@@ -0,0 +1,75 @@
+package utils;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HubClient - Leases browser slots from a local SessionHub and opens RemoteWebDriver
+ * sessions on them. The hub connection stays open for the lifetime of the session.
+ */
+public class HubClient {
+    private static final Map<WebDriver, Socket> leases = new ConcurrentHashMap<>();
+
+    public static WebDriver createDriver(String browser, Capabilities options) {
+        int port = ConfigReader.getIntProperty("hub.port", 4499);
+        long leaseTimeout = ConfigReader.getLongProperty("hub.lease.timeout", 300);
+        Socket socket = null;
+
+        try {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setSoTimeout((int) ((leaseTimeout + 30) * 1000));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+            out.println("LEASE " + browser);
+            String reply = in.readLine();
+            if (reply == null || !reply.startsWith("OK ")) {
+                throw new IllegalStateException("Session hub refused lease: " + reply);
+            }
+
+            WebDriver driver = new RemoteWebDriver(new URL(reply.substring(3).trim()), options);
+            leases.put(driver, socket);
+            return driver;
+        } catch (IOException e) {
+            closeQuietly(socket);
+            throw new IllegalStateException("Could not lease a browser from the session hub on port " + port
+                    + " (is utils.SessionHub running?)", e);
+        } catch (RuntimeException e) {
+            closeQuietly(socket);
+            throw e;
+        }
+    }
+
+    /**
+     * Quits the session and hands its slot back to the hub.
+     */
+    public static void release(WebDriver driver) {
+        try {
+            driver.quit();
+        } finally {
+            closeQuietly(leases.remove(ImplicitWaitMonitor.unwrap(driver)));
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+}
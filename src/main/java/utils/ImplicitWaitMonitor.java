@@ -0,0 +1,170 @@
+package utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ImplicitWaitMonitor - Measures the time element lookups lose to the implicit wait.
+ *
+ * A lookup that finds nothing (findElements returning an empty list, findElement throwing
+ * NoSuchElementException) only returns once the implicit wait has run out, so all of its
+ * time counts as stalled. Stalls are summed per test (the calling thread) and per locator
+ * for the whole suite. With implicit.wait=0 the same numbers show what the misses cost
+ * in round trips alone.
+ *
+ * Enabled with wait.stall.report=true: DriverManager then adds this listener to the
+ * EventFiringDecorator every driver is wrapped in.
+ */
+public class ImplicitWaitMonitor implements WebDriverListener {
+    private static final ThreadLocal<Long> lookupStart = new ThreadLocal<>();
+    private static final ThreadLocal<Map<String, Stall>> testStalls = ThreadLocal.withInitial(HashMap::new);
+    private static final Map<String, Stall> suiteStalls = new ConcurrentHashMap<>();
+
+    private static final class Stall {
+        private int count;
+        private long nanos;
+
+        private synchronized void add(long elapsedNanos) {
+            count++;
+            nanos += elapsedNanos;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return ConfigReader.getBooleanProperty("wait.stall.report", false);
+    }
+
+    /**
+     * Returns the driver underneath the decorator, for code that keys on the original instance.
+     */
+    public static WebDriver unwrap(WebDriver driver) {
+        return driver instanceof WrapsDriver ? ((WrapsDriver) driver).getWrappedDriver() : driver;
+    }
+
+    @Override
+    public void beforeFindElement(WebDriver driver, By locator) {
+        lookupStart.set(System.nanoTime());
+    }
+
+    @Override
+    public void afterFindElement(WebDriver driver, By locator, WebElement result) {
+        lookupStart.remove();
+    }
+
+    @Override
+    public void beforeFindElements(WebDriver driver, By locator) {
+        lookupStart.set(System.nanoTime());
+    }
+
+    @Override
+    public void afterFindElements(WebDriver driver, By locator, List<WebElement> result) {
+        finish(locator, result.isEmpty());
+    }
+
+    @Override
+    public void beforeFindElement(WebElement element, By locator) {
+        lookupStart.set(System.nanoTime());
+    }
+
+    @Override
+    public void afterFindElement(WebElement element, By locator, WebElement result) {
+        lookupStart.remove();
+    }
+
+    @Override
+    public void beforeFindElements(WebElement element, By locator) {
+        lookupStart.set(System.nanoTime());
+    }
+
+    @Override
+    public void afterFindElements(WebElement element, By locator, List<WebElement> result) {
+        finish(locator, result.isEmpty());
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        if (method.getName().equals("findElement") && args != null && args.length == 1 && args[0] instanceof By) {
+            finish((By) args[0], e.getTargetException() instanceof NoSuchElementException);
+        }
+    }
+
+    private static void finish(By locator, boolean missed) {
+        Long start = lookupStart.get();
+        lookupStart.remove();
+        if (start == null || !missed) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        String key = String.valueOf(locator);
+        testStalls.get().computeIfAbsent(key, k -> new Stall()).add(elapsed);
+        suiteStalls.computeIfAbsent(key, k -> new Stall()).add(elapsed);
+    }
+
+    /**
+     * Summarises and clears the stalls recorded on the current thread since the last call,
+     * or returns null when there were none.
+     */
+    public static String takeTestReport() {
+        Map<String, Stall> stalls = testStalls.get();
+        if (stalls.isEmpty()) {
+            return null;
+        }
+        List<Map.Entry<String, Stall>> ordered = sortByTime(stalls);
+        stalls.clear();
+
+        int count = 0;
+        long nanos = 0;
+        for (Map.Entry<String, Stall> entry : ordered) {
+            count += entry.getValue().count;
+            nanos += entry.getValue().nanos;
+        }
+        Map.Entry<String, Stall> worst = ordered.get(0);
+        return count + " empty lookups, " + millis(nanos) + "ms lost; worst " + worst.getKey()
+                + " (" + worst.getValue().count + "x, " + millis(worst.getValue().nanos) + "ms)";
+    }
+
+    /**
+     * Prints the locators that lost the most time over the whole suite.
+     */
+    public static void printSuiteReport() {
+        if (suiteStalls.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, Stall>> ordered = sortByTime(suiteStalls);
+        long total = 0;
+        for (Map.Entry<String, Stall> entry : ordered) {
+            total += entry.getValue().nanos;
+        }
+
+        System.out.println("[STALL] Time lost to empty lookups: " + millis(total) + "ms (implicit wait "
+                + DriverManager.getImplicitWait().toMillis() + "ms)");
+        System.out.println(String.format("[STALL] %8s %6s  %s", "ms", "count", "locator"));
+        int limit = ConfigReader.getIntProperty("wait.stall.report.top", 15);
+        for (Map.Entry<String, Stall> entry : ordered.subList(0, Math.min(limit, ordered.size()))) {
+            System.out.println(String.format("[STALL] %8d %6d  %s",
+                    millis(entry.getValue().nanos), entry.getValue().count, entry.getKey()));
+        }
+    }
+
+    private static List<Map.Entry<String, Stall>> sortByTime(Map<String, Stall> stalls) {
+        List<Map.Entry<String, Stall>> ordered = new ArrayList<>(stalls.entrySet());
+        ordered.sort((a, b) -> Long.compare(b.getValue().nanos, a.getValue().nanos));
+        return ordered;
+    }
+
+    private static long millis(long nanos) {
+        return nanos / 1_000_000;
+    }
+}
@@ -0,0 +1,323 @@
+package utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * LocatorRanking - Remembers which alternative of a locator fallback chain works and tries
+ * the best one first.
+ *
+ * Each alternative keeps its attempts, successes and smoothed attempt time. Alternatives are
+ * ordered by success rate per millisecond (the order that minimises the expected time to the
+ * first success), so a primary strategy that keeps failing stops costing a wait on every run.
+ * Alternatives marked lastResort (e.g. typing the URL) always go last.
+ *
+ * Rankings are loaded from locator.ranking.file; at the end of the suite the attempts of the
+ * run are added to it.
+ * Chain and alternative names are used as property keys, so keep them to letters, dots and dashes.
+ */
+public class LocatorRanking {
+    // Counts are halved past this many attempts so the ranking follows site changes
+    private static final int MAX_ATTEMPTS = 100;
+
+    private static final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private static volatile boolean loaded;
+
+    private static final class Stats {
+        private int attempts;
+        private int successes;
+        private long avgMillis;
+        // What this run added since the last save; save() adds it to the file's counts
+        private int newAttempts;
+        private int newSuccesses;
+        private long newAvgMillis;
+
+        private synchronized void record(boolean success, long millis) {
+            avgMillis = attempts == 0 ? millis : smooth(avgMillis, millis);
+            newAvgMillis = newAttempts == 0 ? millis : smooth(newAvgMillis, millis);
+            attempts++;
+            newAttempts++;
+            if (success) {
+                successes++;
+                newSuccesses++;
+            }
+            if (attempts > MAX_ATTEMPTS) {
+                attempts /= 2;
+                successes /= 2;
+            }
+        }
+
+        /**
+         * Smoothed success rate per millisecond of trying; higher is tried earlier.
+         */
+        private synchronized double score() {
+            return (successes + 1.0) / (attempts + 2.0) / Math.max(1, avgMillis);
+        }
+
+        /**
+         * Adds this run's counts to an entry of the ranking file (null if there is none),
+         * returns the merged entry and starts a new delta; null when nothing was recorded.
+         */
+        private synchronized String mergeInto(String entry) {
+            if (newAttempts == 0) {
+                return null;
+            }
+            int mergedAttempts = newAttempts;
+            int mergedSuccesses = newSuccesses;
+            long mergedMillis = newAvgMillis;
+            long[] saved = parse(entry);
+            if (saved != null) {
+                mergedAttempts += (int) saved[0];
+                mergedSuccesses += (int) saved[1];
+                mergedMillis = saved[0] == 0 ? newAvgMillis : smooth(saved[2], newAvgMillis);
+            }
+            while (mergedAttempts > MAX_ATTEMPTS) {
+                mergedAttempts /= 2;
+                mergedSuccesses /= 2;
+            }
+            newAttempts = 0;
+            newSuccesses = 0;
+            return mergedAttempts + "," + mergedSuccesses + "," + mergedMillis;
+        }
+    }
+
+    private static long smooth(long average, long latest) {
+        return (average * 7 + latest * 3) / 10;
+    }
+
+    /**
+     * attempts, successes and average millis of a ranking file entry, or null if it is not one.
+     */
+    private static long[] parse(String entry) {
+        if (entry == null) {
+            return null;
+        }
+        String[] parts = entry.split(",");
+        try {
+            return new long[]{Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()), Long.parseLong(parts[2].trim())};
+        } catch (RuntimeException e) {
+            // Hand-edited garbage
+            return null;
+        }
+    }
+
+    public static <T> Chain<T> chain(String name) {
+        return new Chain<>(name);
+    }
+
+    /**
+     * A fallback chain: alternatives that each either return a result or throw.
+     */
+    public static final class Chain<T> {
+        private final String name;
+        private final List<String> names = new ArrayList<>();
+        private final List<Callable<T>> attempts = new ArrayList<>();
+        private final List<Boolean> lastResort = new ArrayList<>();
+
+        private Chain(String name) {
+            this.name = name;
+        }
+
+        public Chain<T> then(String alternative, Callable<T> attempt) {
+            return add(alternative, attempt, false);
+        }
+
+        public Chain<T> lastResort(String alternative, Callable<T> attempt) {
+            return add(alternative, attempt, true);
+        }
+
+        private Chain<T> add(String alternative, Callable<T> attempt, boolean last) {
+            names.add(alternative);
+            attempts.add(attempt);
+            lastResort.add(last);
+            return this;
+        }
+
+        /**
+         * Tries the alternatives best-first until one succeeds.
+         *
+         * @throws IllegalStateException with the last failure as cause when every alternative failed
+         */
+        public T run() {
+            Exception lastFailure = null;
+            for (int index : order()) {
+                String key = name + "|" + names.get(index);
+                long start = System.nanoTime();
+                try {
+                    T result = attempts.get(index).call();
+                    record(key, true, (System.nanoTime() - start) / 1_000_000);
+                    return result;
+                } catch (Exception e) {
+                    record(key, false, (System.nanoTime() - start) / 1_000_000);
+                    System.out.println("[LOCATOR] " + key + " failed: " + e.getMessage());
+                    lastFailure = e;
+                }
+            }
+            throw new IllegalStateException("Every alternative of " + name + " failed", lastFailure);
+        }
+
+        /**
+         * Indexes of the alternatives in the order run() tries them.
+         */
+        List<Integer> order() {
+            List<Integer> order = new ArrayList<>();
+            boolean anyHistory = false;
+            for (int i = 0; i < names.size(); i++) {
+                order.add(i);
+                anyHistory |= known(name + "|" + names.get(i));
+            }
+            if (!anyHistory) {
+                return order;
+            }
+
+            // Untried alternatives rank like an average tried one; ties keep the declared order
+            double unknownScore = 0;
+            int tried = 0;
+            for (String alternative : names) {
+                if (known(name + "|" + alternative)) {
+                    unknownScore += stats(name + "|" + alternative).score();
+                    tried++;
+                }
+            }
+            double fallbackScore = unknownScore / tried;
+            order.sort(Comparator.<Integer, Boolean>comparing(lastResort::get)
+                    .thenComparing(i -> {
+                        String key = name + "|" + names.get(i);
+                        return -(known(key) ? stats(key).score() : fallbackScore);
+                    }));
+            return order;
+        }
+    }
+
+    /**
+     * Records one attempt of an alternative; key is "chain|alternative".
+     */
+    static void record(String key, boolean success, long millis) {
+        stats(key).record(success, millis);
+    }
+
+    /**
+     * Drops everything recorded for a chain in this JVM, so it is not saved.
+     */
+    static void forget(String chainName) {
+        stats.keySet().removeIf(key -> key.startsWith(chainName + "|"));
+    }
+
+    private static boolean known(String key) {
+        load();
+        return stats.containsKey(key);
+    }
+
+    private static Stats stats(String key) {
+        load();
+        return stats.computeIfAbsent(key, k -> new Stats());
+    }
+
+    static Path rankingFile() {
+        return Paths.get(ConfigReader.getProperty("locator.ranking.file", "locator-rankings.properties"));
+    }
+
+    private static void load() {
+        if (loaded) {
+            return;
+        }
+        synchronized (LocatorRanking.class) {
+            if (loaded) {
+                return;
+            }
+            for (Map.Entry<String, String> entry : read().entrySet()) {
+                long[] saved = parse(entry.getValue());
+                if (saved != null) {
+                    Stats loadedStats = new Stats();
+                    loadedStats.attempts = (int) saved[0];
+                    loadedStats.successes = (int) saved[1];
+                    loadedStats.avgMillis = saved[2];
+                    stats.put(entry.getKey(), loadedStats);
+                }
+            }
+            loaded = true;
+        }
+    }
+
+    private static Map<String, String> read() {
+        Map<String, String> entries = new TreeMap<>();
+        Path file = rankingFile();
+        if (!Files.exists(file)) {
+            return entries;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            System.out.println("[LOCATOR] Could not read " + file + ": " + e.getMessage());
+            return entries;
+        }
+        for (String key : properties.stringPropertyNames()) {
+            entries.put(key, properties.getProperty(key));
+        }
+        return entries;
+    }
+
+    /**
+     * Adds the attempts of this run to the ranking file, keeping the entries other runs wrote.
+     * The file is re-read under a lock, so forks saving at the same time add up instead of
+     * overwriting each other.
+     */
+    public static void save() {
+        if (!loaded) {
+            return;
+        }
+        Path file = rankingFile();
+        synchronized (LocatorRanking.class) {
+            try {
+                Path parent = file.toAbsolutePath().getParent();
+                Files.createDirectories(parent);
+                try (FileChannel lockChannel = FileChannel.open(parent.resolve(file.getFileName() + ".lock"),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                    // Held until the channel is closed
+                    lockChannel.lock();
+                    Map<String, String> entries = read();
+                    boolean changed = false;
+                    for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+                        String merged = entry.getValue().mergeInto(entries.get(entry.getKey()));
+                        if (merged != null) {
+                            entries.put(entry.getKey(), merged);
+                            changed = true;
+                        }
+                    }
+                    if (!changed) {
+                        return;
+                    }
+
+                    Path temp = Files.createTempFile(parent, "locator-rankings", ".tmp");
+                    try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                        writer.write("# chain|alternative=attempts,successes,average millis; written by utils.LocatorRanking\n");
+                        for (Map.Entry<String, String> entry : entries.entrySet()) {
+                            writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+                        }
+                    }
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    System.out.println("[LOCATOR] Saved rankings of " + entries.size() + " locator alternatives to " + file);
+                }
+            } catch (IOException e) {
+                System.out.println("[LOCATOR] Could not write " + file + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * NetworkMonitor - One DevTools session per browser, attached to the window the driver
+ * is currently on. Blocks requests for the lean render profile through the Fetch domain,
+ * keeps per-test counters of what was blocked, and tracks requests in flight so waits can
+ * continue as soon as the page's network traffic settles.
+ *
+ * Raw CDP commands and events are used so the code does not depend on a devtools-vNNN module.
+ */
+public class NetworkMonitor {
+    private static final Map<WebDriver, NetworkMonitor> monitors = Collections.synchronizedMap(new WeakHashMap<>());
+
+    // Transfer sizes seen in full-rendering sessions, used to estimate what blocking saved
+    private static final Map<String, Long> knownSizes = new ConcurrentHashMap<>();
+
+    private static final Event<Map<String, Object>> REQUEST_WILL_BE_SENT = event("Network.requestWillBeSent");
+    private static final Event<Map<String, Object>> LOADING_FINISHED = event("Network.loadingFinished");
+    private static final Event<Map<String, Object>> LOADING_FAILED = event("Network.loadingFailed");
+    private static final Event<Map<String, Object>> REQUEST_PAUSED = event("Fetch.requestPaused");
+
+    private final DevTools devTools;
+    private final Map<String, String> requestUrls = new ConcurrentHashMap<>();
+    // requestId -> start time (nanoTime) of requests that count against network idle
+    private final Map<String, Long> inFlight = new ConcurrentHashMap<>();
+    private final List<Pattern> idleIgnorePatterns = globs(splitConfig("network.idle.ignore.urls"));
+    private volatile long lastActivityNanos = System.nanoTime();
+    private final AtomicInteger blockedRequests = new AtomicInteger();
+    private final AtomicInteger blockedWithKnownSize = new AtomicInteger();
+    private final AtomicLong bytesSaved = new AtomicLong();
+    private String attachedHandle;
+    private RenderProfile profile = RenderProfile.FULL;
+
+    private NetworkMonitor(DevTools devTools) {
+        this.devTools = devTools;
+    }
+
+    /**
+     * Returns the monitor for the driver, attaching it to the current window first.
+     * Returns null for browsers without the Chrome DevTools protocol.
+     */
+    public static NetworkMonitor of(WebDriver driver) {
+        if (!(driver instanceof HasCdp) || !(driver instanceof HasDevTools)) {
+            return null;
+        }
+        NetworkMonitor monitor;
+        synchronized (monitors) {
+            monitor = monitors.computeIfAbsent(driver, d -> new NetworkMonitor(((HasDevTools) d).getDevTools()));
+        }
+        monitor.attach(driver.getWindowHandle());
+        return monitor;
+    }
+
+    /**
+     * Switches request blocking for the driver's current window to the given profile.
+     * Does nothing on browsers without DevTools support.
+     */
+    public static void applyRenderProfile(WebDriver driver, RenderProfile profile) {
+        NetworkMonitor monitor = of(driver);
+        if (monitor != null) {
+            monitor.setProfile(profile);
+        } else if (profile != RenderProfile.FULL) {
+            System.out.println("[RENDER] " + profile + " profile needs Chrome DevTools, rendering fully instead");
+        }
+    }
+
+    private synchronized void attach(String windowHandle) {
+        if (windowHandle.equals(attachedHandle)) {
+            return;
+        }
+
+        devTools.createSession(windowHandle);
+        devTools.clearListeners();
+        requestUrls.clear();
+        inFlight.clear();
+        lastActivityNanos = System.nanoTime();
+        devTools.send(new Command<>("Network.enable", new HashMap<>()));
+        devTools.addListener(REQUEST_WILL_BE_SENT, this::onRequestWillBeSent);
+        devTools.addListener(LOADING_FINISHED, this::onLoadingFinished);
+        devTools.addListener(LOADING_FAILED, this::onLoadingFailed);
+        devTools.addListener(REQUEST_PAUSED, this::onRequestPaused);
+
+        attachedHandle = windowHandle;
+        RenderProfile current = profile;
+        profile = RenderProfile.FULL;
+        setProfile(current);
+    }
+
+    private synchronized void setProfile(RenderProfile newProfile) {
+        if (newProfile == RenderProfile.LEAN) {
+            Map<String, Object> params = new HashMap<>();
+            params.put("patterns", leanPatterns());
+            devTools.send(new Command<>("Fetch.enable", params));
+        } else if (profile == RenderProfile.LEAN) {
+            devTools.send(new Command<>("Fetch.disable", new HashMap<>()));
+        }
+        profile = newProfile;
+    }
+
+    /**
+     * Returns a one-line summary of what the lean profile blocked since the last call
+     * and resets the counters, or null when nothing was blocked.
+     */
+    public String takeRenderStats() {
+        int blocked = blockedRequests.getAndSet(0);
+        int known = blockedWithKnownSize.getAndSet(0);
+        long bytes = bytesSaved.getAndSet(0);
+        if (blocked == 0) {
+            return null;
+        }
+        return "blocked " + blocked + " requests, saved ~" + (bytes / 1024) + " KB"
+                + " (size known for " + known + " of " + blocked + ")";
+    }
+
+    /**
+     * Waits until no tracked request has been in flight for quietMillis. The quiet period is
+     * counted from this call at the earliest, so requests started by the action just before
+     * it have time to show up. Requests matching network.idle.ignore.urls (beacons, long
+     * polls) and requests older than network.idle.max.request.ms are not waited for.
+     *
+     * @return false if the network was still busy when the timeout passed
+     */
+    public boolean awaitIdle(long quietMillis, long timeoutMillis) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        long quietNanos = TimeUnit.MILLISECONDS.toNanos(quietMillis);
+        long maxRequestNanos = TimeUnit.MILLISECONDS.toNanos(ConfigReader.getLongProperty("network.idle.max.request.ms", 10000));
+
+        while (true) {
+            long now = System.nanoTime();
+            int active = 0;
+            for (long startedAt : inFlight.values()) {
+                if (now - startedAt < maxRequestNanos) {
+                    active++;
+                }
+            }
+            long quietUntil = Math.max(lastActivityNanos, start) + quietNanos;
+            if (active == 0 && now >= quietUntil) {
+                return true;
+            }
+            if (now >= deadline) {
+                return false;
+            }
+
+            // Nothing here talks to the browser, so checking often is free
+            long sleepNanos = active > 0 ? TimeUnit.MILLISECONDS.toNanos(10) : quietUntil - now;
+            try {
+                TimeUnit.NANOSECONDS.sleep(Math.max(1, Math.min(sleepNanos, deadline - now)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    private List<Map<String, Object>> leanPatterns() {
+        List<Map<String, Object>> patterns = new ArrayList<>();
+        for (String type : splitConfig("render.lean.block.types")) {
+            Map<String, Object> pattern = new HashMap<>();
+            pattern.put("urlPattern", "*");
+            pattern.put("resourceType", type);
+            pattern.put("requestStage", "Request");
+            patterns.add(pattern);
+        }
+        for (String url : splitConfig("render.lean.block.urls")) {
+            Map<String, Object> pattern = new HashMap<>();
+            pattern.put("urlPattern", url);
+            pattern.put("requestStage", "Request");
+            patterns.add(pattern);
+        }
+        return patterns;
+    }
+
+    private void onRequestWillBeSent(Map<String, Object> event) {
+        Map<?, ?> request = (Map<?, ?>) event.get("request");
+        String requestId = (String) event.get("requestId");
+        String url = (String) request.get("url");
+        requestUrls.put(requestId, url);
+        if (!isIgnoredForIdle(url)) {
+            // Redirects reuse the request id; keep the original start time
+            inFlight.putIfAbsent(requestId, System.nanoTime());
+        }
+        lastActivityNanos = System.nanoTime();
+    }
+
+    private void onLoadingFailed(Map<String, Object> event) {
+        String requestId = (String) event.get("requestId");
+        requestUrls.remove(requestId);
+        if (inFlight.remove(requestId) != null) {
+            lastActivityNanos = System.nanoTime();
+        }
+    }
+
+    private void onLoadingFinished(Map<String, Object> event) {
+        if (inFlight.remove((String) event.get("requestId")) != null) {
+            lastActivityNanos = System.nanoTime();
+        }
+        String url = requestUrls.remove((String) event.get("requestId"));
+        Object length = event.get("encodedDataLength");
+        if (url != null && length instanceof Number) {
+            knownSizes.put(url, ((Number) length).longValue());
+        }
+    }
+
+    /**
+     * Fetch only pauses requests matching the lean patterns, so every paused request is blocked.
+     */
+    private void onRequestPaused(Map<String, Object> event) {
+        Map<?, ?> request = (Map<?, ?>) event.get("request");
+        Long size = knownSizes.get((String) request.get("url"));
+        blockedRequests.incrementAndGet();
+        if (size != null) {
+            blockedWithKnownSize.incrementAndGet();
+            bytesSaved.addAndGet(size);
+        }
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("requestId", event.get("requestId"));
+        params.put("errorReason", "BlockedByClient");
+        try {
+            devTools.send(new Command<>("Fetch.failRequest", params));
+        } catch (Exception e) {
+            // Request was cancelled by the page in the meantime
+        }
+    }
+
+    private boolean isIgnoredForIdle(String url) {
+        for (Pattern pattern : idleIgnorePatterns) {
+            if (pattern.matcher(url).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Turns DevTools-style URL globs ("*" wildcards) into regular expressions.
+     */
+    private static List<Pattern> globs(List<String> globs) {
+        List<Pattern> patterns = new ArrayList<>();
+        for (String glob : globs) {
+            List<String> literals = new ArrayList<>();
+            for (String literal : glob.split("\\*", -1)) {
+                literals.add(Pattern.quote(literal));
+            }
+            patterns.add(Pattern.compile(String.join(".*", literals)));
+        }
+        return patterns;
+    }
+
+    private static List<String> splitConfig(String key) {
+        List<String> values = new ArrayList<>();
+        for (String value : ConfigReader.getProperty(key, "").split(",")) {
+            if (!value.trim().isEmpty()) {
+                values.add(value.trim());
+            }
+        }
+        return values;
+    }
+
+    private static Event<Map<String, Object>> event(String method) {
+        return new Event<>(method, input -> input.read(Json.MAP_TYPE));
+    }
+}
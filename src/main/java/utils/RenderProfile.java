@@ -0,0 +1,21 @@
+package utils;
+
+/**
+ * RenderProfile - How much of the storefront the browser is allowed to load.
+ * FULL loads everything; LEAN drops the resource types and URL patterns configured
+ * under render.lean.* (images, fonts, tag-management scripts...).
+ */
+public enum RenderProfile {
+    FULL,
+    LEAN;
+
+    public static RenderProfile fromConfig() {
+        String name = ConfigReader.getProperty("render.profile", "full");
+        for (RenderProfile profile : values()) {
+            if (profile.name().equalsIgnoreCase(name)) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException("Unknown render.profile: " + name + " (use full or lean)");
+    }
+}
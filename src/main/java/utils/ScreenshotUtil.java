@@ -1,12 +1,15 @@
 package utils;
 
-import org.apache.commons.io.FileUtils;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 
@@ -16,23 +19,26 @@ import java.util.Date;
 public class ScreenshotUtil {
 
     public static String captureScreenshot(WebDriver driver, String screenshotName) {
+        // Thread id keeps names unique when parallel tests fail in the same second
         String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
-        String fileName = screenshotName + "_" + timestamp + ".png";
+        String fileName = screenshotName + "_" + timestamp + "_t" + Thread.currentThread().getId() + ".png";
         String screenshotPath = "screenshots/" + fileName;
 
         try {
-            File screenshotDir = new File("screenshots");
-            if (!screenshotDir.exists()) {
-                screenshotDir.mkdirs();
-            }
-
-            TakesScreenshot ts = (TakesScreenshot) driver;
-            File source = ts.getScreenshotAs(OutputType.FILE);
-            File destination = new File(screenshotPath);
-            FileUtils.copyFile(source, destination);
+            // Capture now, while the page still shows the failure; write the file in the background
+            byte[] png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+            Path destination = Paths.get(screenshotPath);
+            HarnessExecutors.runInBackground(() -> {
+                try {
+                    Files.createDirectories(destination.getParent());
+                    Files.write(destination, png);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not write screenshot " + destination, e);
+                }
+            });
 
             return screenshotPath;
-        } catch (IOException e) {
+        } catch (WebDriverException e) {
             return null;
         }
     }
@@ -0,0 +1,247 @@
+package utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SessionCache - Keeps the auth cookies of each test account so a new driver can be
+ * signed in by cookie injection instead of going through the login form.
+ * Sessions can optionally be persisted to disk so later runs reuse them until they expire.
+ */
+public class SessionCache {
+    private static final Map<String, CachedSession> sessions = new ConcurrentHashMap<>();
+    private static final Json JSON = new Json();
+
+    /**
+     * Injects the cached cookies for the account into the driver and reloads the page.
+     * The driver must already be on the application domain.
+     *
+     * @return false when nothing usable is cached; the caller still has to verify the
+     * reloaded page is signed in, since the server may have dropped the session
+     */
+    public static boolean restore(WebDriver driver, String account) {
+        CachedSession session = lookup(account);
+        if (session == null) {
+            return false;
+        }
+
+        try {
+            long now = System.currentTimeMillis();
+            List<Cookie> live = new ArrayList<>();
+            for (Cookie cookie : session.cookies) {
+                if (cookie.getExpiry() == null || cookie.getExpiry().getTime() > now) {
+                    live.add(cookie);
+                }
+            }
+            injectCookies(driver, live);
+
+            WebElement oldDocument = driver.findElement(By.tagName("html"));
+            driver.navigate().refresh();
+            WaitHelper waitHelper = new WaitHelper(driver);
+            waitHelper.waitForStaleElement(oldDocument);
+            waitHelper.waitForPageLoad();
+            return true;
+        } catch (Exception e) {
+            System.out.println("[SESSION] Could not inject cached session for " + account + ": " + e.getMessage());
+            invalidate(account);
+            return false;
+        }
+    }
+
+    /**
+     * Stores the current cookies of a signed-in driver for the account.
+     */
+    public static void save(WebDriver driver, String account) {
+        List<Cookie> cookies = new ArrayList<>(driver.manage().getCookies());
+        CachedSession session = new CachedSession(cookies, System.currentTimeMillis());
+        sessions.put(account, session);
+
+        if (isPersistent()) {
+            HarnessExecutors.runInBackground(() -> write(account, session));
+        }
+    }
+
+    /**
+     * Drops the cached session (in memory and on disk), e.g. after the server rejected it.
+     */
+    public static void invalidate(String account) {
+        sessions.remove(account);
+        if (isPersistent()) {
+            try {
+                Files.deleteIfExists(fileFor(account));
+            } catch (IOException e) {
+                System.out.println("[SESSION] Could not delete cached session file: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Sets all cookies in one DevTools round trip where possible instead of one
+     * WebDriver command per cookie.
+     */
+    private static void injectCookies(WebDriver driver, List<Cookie> cookies) {
+        if (!(driver instanceof HasCdp)) {
+            for (Cookie cookie : cookies) {
+                driver.manage().addCookie(cookie);
+            }
+            return;
+        }
+
+        List<Map<String, Object>> params = new ArrayList<>();
+        for (Cookie cookie : cookies) {
+            Map<String, Object> param = new HashMap<>();
+            param.put("name", cookie.getName());
+            param.put("value", cookie.getValue());
+            if (cookie.getDomain() != null) {
+                param.put("domain", cookie.getDomain());
+            } else {
+                param.put("url", ConfigReader.getBaseUrl());
+            }
+            param.put("path", cookie.getPath() != null ? cookie.getPath() : "/");
+            param.put("secure", cookie.isSecure());
+            param.put("httpOnly", cookie.isHttpOnly());
+            if (cookie.getSameSite() != null) {
+                param.put("sameSite", cookie.getSameSite());
+            }
+            if (cookie.getExpiry() != null) {
+                param.put("expires", cookie.getExpiry().getTime() / 1000.0);
+            }
+            params.add(param);
+        }
+        Map<String, Object> command = new HashMap<>();
+        command.put("cookies", params);
+        ((HasCdp) driver).executeCdpCommand("Network.setCookies", command);
+    }
+
+    private static CachedSession lookup(String account) {
+        CachedSession session = sessions.get(account);
+        if (session == null && isPersistent()) {
+            session = read(account);
+            if (session != null) {
+                sessions.put(account, session);
+            }
+        }
+        if (session != null && session.isExpired()) {
+            invalidate(account);
+            return null;
+        }
+        return session;
+    }
+
+    private static boolean isPersistent() {
+        return ConfigReader.getBooleanProperty("session.cache.persist", false);
+    }
+
+    private static Duration getTtl() {
+        return Duration.ofMinutes(ConfigReader.getLongProperty("session.cache.ttl.minutes", 30));
+    }
+
+    private static Path fileFor(String account) {
+        String dir = ConfigReader.getProperty("session.cache.dir", "target/session-cache");
+        return Paths.get(dir, sha256(account) + ".json");
+    }
+
+    private static void write(String account, CachedSession session) {
+        List<Map<String, Object>> cookies = new ArrayList<>();
+        for (Cookie cookie : session.cookies) {
+            cookies.add(cookie.toJson());
+        }
+        Map<String, Object> content = new LinkedHashMap<>();
+        content.put("savedAt", session.savedAt);
+        content.put("cookies", cookies);
+
+        try {
+            Path file = fileFor(account);
+            Files.createDirectories(file.getParent());
+            Files.write(file, JSON.toJson(content).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.out.println("[SESSION] Could not persist session for " + account + ": " + e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CachedSession read(String account) {
+        Path file = fileFor(account);
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try {
+            String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            Map<String, Object> content = JSON.toType(text, Json.MAP_TYPE);
+            List<Cookie> cookies = new ArrayList<>();
+            for (Object raw : (List<Object>) content.get("cookies")) {
+                cookies.add(toCookie((Map<String, Object>) raw));
+            }
+            return new CachedSession(cookies, ((Number) content.get("savedAt")).longValue());
+        } catch (Exception e) {
+            System.out.println("[SESSION] Ignoring unreadable session file " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static Cookie toCookie(Map<String, Object> json) {
+        Cookie.Builder builder = new Cookie.Builder((String) json.get("name"), (String) json.get("value"))
+                .path((String) json.get("path"))
+                .domain((String) json.get("domain"))
+                .isSecure(Boolean.TRUE.equals(json.get("secure")))
+                .isHttpOnly(Boolean.TRUE.equals(json.get("httpOnly")));
+
+        Object expiry = json.get("expiry");
+        if (expiry instanceof Number) {
+            builder.expiresOn(new Date(((Number) expiry).longValue() * 1000));
+        }
+        Object sameSite = json.get("sameSite");
+        if (sameSite instanceof String) {
+            builder.sameSite((String) sameSite);
+        }
+        return builder.build();
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class CachedSession {
+        private final List<Cookie> cookies;
+        private final long savedAt;
+
+        private CachedSession(List<Cookie> cookies, long savedAt) {
+            this.cookies = cookies;
+            this.savedAt = savedAt;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() - savedAt > getTtl().toMillis();
+        }
+    }
+}
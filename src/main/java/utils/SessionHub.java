@@ -0,0 +1,145 @@
+package utils;
+
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.edge.EdgeDriverService;
+import org.openqa.selenium.firefox.GeckoDriverService;
+import org.openqa.selenium.remote.service.DriverService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SessionHub - Lightweight local hub that owns a capped number of browser slots and hands
+ * them out to test JVMs (surefire forks, other repos) over a loopback socket.
+ *
+ * Protocol, one line per message:
+ *   LEASE [browser]  ->  OK &lt;driver url&gt;  |  ERR &lt;reason&gt;
+ *   STATUS           ->  OK &lt;free&gt;/&lt;total&gt;
+ * A leased slot is held until the client closes its connection, so a crashed fork frees
+ * its slot (and the driver process behind it) automatically.
+ *
+ * Start it once per machine: java -cp &lt;test classpath&gt; utils.SessionHub [port] [slots]
+ */
+public class SessionHub {
+    private final int port;
+    private final int slotCount;
+    private final Semaphore slots;
+    private final long leaseTimeoutSeconds;
+    private final ExecutorService connections = Executors.newCachedThreadPool();
+
+    public SessionHub(int port, int slotCount, long leaseTimeoutSeconds) {
+        this.port = port;
+        this.slotCount = slotCount;
+        this.slots = new Semaphore(slotCount, true);
+        this.leaseTimeoutSeconds = leaseTimeoutSeconds;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : ConfigReader.getIntProperty("hub.port", 4499);
+        int defaultSlots = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        int slotCount = args.length > 1 ? Integer.parseInt(args[1]) : ConfigReader.getIntProperty("hub.slots", defaultSlots);
+        long leaseTimeout = ConfigReader.getLongProperty("hub.lease.timeout", 300);
+
+        new SessionHub(port, slotCount, leaseTimeout).run();
+    }
+
+    public void run() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.out.println("[HUB] Listening on 127.0.0.1:" + port + " with " + slotCount + " browser slots");
+            while (!serverSocket.isClosed()) {
+                Socket client = serverSocket.accept();
+                connections.submit(() -> serve(client));
+            }
+        } finally {
+            connections.shutdownNow();
+        }
+    }
+
+    private void serve(Socket client) {
+        DriverService service = null;
+        boolean holdsSlot = false;
+
+        try (Socket socket = client;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.trim().split("\\s+");
+                switch (parts[0].toUpperCase()) {
+                    case "LEASE":
+                        if (holdsSlot) {
+                            out.println("ERR this connection already holds a slot");
+                            break;
+                        }
+                        if (!slots.tryAcquire(leaseTimeoutSeconds, TimeUnit.SECONDS)) {
+                            out.println("ERR no free browser slot within " + leaseTimeoutSeconds + "s");
+                            break;
+                        }
+                        holdsSlot = true;
+                        String browser = parts.length > 1 ? parts[1].toLowerCase() : ConfigReader.getProperty("browser").toLowerCase();
+                        try {
+                            service = startService(browser);
+                        } catch (RuntimeException | IOException e) {
+                            slots.release();
+                            holdsSlot = false;
+                            out.println("ERR could not start " + browser + " driver: " + e.getMessage());
+                            break;
+                        }
+                        System.out.println("[HUB] Leased " + browser + " slot (" + slots.availablePermits() + "/" + slotCount + " free)");
+                        out.println("OK " + service.getUrl());
+                        break;
+
+                    case "STATUS":
+                        out.println("OK " + slots.availablePermits() + "/" + slotCount);
+                        break;
+
+                    default:
+                        out.println("ERR unknown command: " + parts[0]);
+                }
+            }
+        } catch (IOException e) {
+            // Client went away; its slot is freed below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (service != null) {
+                service.stop();
+            }
+            if (holdsSlot) {
+                slots.release();
+                System.out.println("[HUB] Released slot (" + slots.availablePermits() + "/" + slotCount + " free)");
+            }
+        }
+    }
+
+    private static DriverService startService(String browser) throws IOException {
+        DriverBinaries.ensureResolved(browser);
+        DriverService service;
+        switch (browser) {
+            case "chrome":
+                service = ChromeDriverService.createDefaultService();
+                break;
+            case "firefox":
+                service = GeckoDriverService.createDefaultService();
+                break;
+            case "edge":
+                service = EdgeDriverService.createDefaultService();
+                break;
+            default:
+                throw new IllegalArgumentException("Browser not supported: " + browser);
+        }
+        service.start();
+        return service;
+    }
+}
@@ -0,0 +1,307 @@
+package utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StyleAudit - Declarative computed-style rules checked over a set of page items in one
+ * script call, returning every violation at once.
+ *
+ * The scope locator selects the items (e.g. the product cards); onlyWhere() narrows them to
+ * items with enough matching descendants. Each rule names a CSS selector inside the item, or
+ * an xpath relative to it (".//..."), and the checks its first match must pass:
+ *
+ *   StyleAudit.on(driver).scope(PRODUCT_ITEMS).onlyWhere("span.price", 2)
+ *       .require("old price struck through", "p.old-price span.price",
+ *               StyleAudit.anyContains("line-through", "text-decoration", "text-decoration-line"))
+ *       .run();
+ *
+ * require() reports items where the selector matches nothing; ifPresent() skips them.
+ * anyContains() and noneContains() check several properties at once, e.g. the text-decoration
+ * shorthand and its -line longhand. matches() takes a regular expression in the common subset
+ * of Java and JavaScript syntax.
+ */
+public class StyleAudit {
+    static final String SCRIPT =
+            "var spec = arguments[0], items, violations = [], checked = 0;"
+            + "if (spec.using === 'xpath') {"
+            + "  var r = document.evaluate(spec.value, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);"
+            + "  items = [];"
+            + "  for (var i = 0; i < r.snapshotLength; i++) { items.push(r.snapshotItem(i)); }"
+            + "} else { items = Array.prototype.slice.call(document.querySelectorAll(spec.value)); }"
+            + "spec.rules.forEach(function (rule) {"
+            + "  rule.checks.forEach(function (c) { if (c.op === 'matches') { c.pattern = new RegExp(c.value); } });"
+            + "});"
+            + "items.forEach(function (item, index) {"
+            + "  if (spec.where && item.querySelectorAll(spec.where).length < spec.whereMin) { return; }"
+            + "  checked++;"
+            + "  spec.rules.forEach(function (rule) {"
+            + "    var el = rule.using === 'xpath'"
+            + "        ? document.evaluate(rule.value, item, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue"
+            + "        : item.querySelector(rule.value);"
+            + "    if (!el) {"
+            + "      if (rule.required) { violations.push({item: index, rule: rule.name, property: null, actual: 'missing', expected: rule.value}); }"
+            + "      return;"
+            + "    }"
+            + "    var s = getComputedStyle(el);"
+            + "    rule.checks.forEach(function (c) {"
+            + "      var values = c.properties.map(function (p) { return s.getPropertyValue(p); }), ok;"
+            + "      if (c.op === 'contains') { ok = values.some(function (v) { return v.indexOf(c.value) >= 0; }); }"
+            + "      else if (c.op === 'notContains') { ok = values.every(function (v) { return v.indexOf(c.value) < 0; }); }"
+            + "      else if (c.op === 'equals') { ok = values.some(function (v) { return v === c.value; }); }"
+            + "      else { ok = values.some(function (v) { return c.pattern.test(v); }); }"
+            + "      if (!ok) { violations.push({item: index, rule: rule.name, property: c.properties.join('|'), actual: values.join(' | '), expected: c.op + ' ' + c.value}); }"
+            + "    });"
+            + "  });"
+            + "});"
+            + "return {violations: violations, items: items.length, checked: checked};";
+
+    private final WebDriver driver;
+    private final Map<String, Object> spec = new HashMap<>();
+    private final List<Map<String, Object>> rules = new ArrayList<>();
+
+    private StyleAudit(WebDriver driver) {
+        this.driver = driver;
+        spec.put("rules", rules);
+    }
+
+    public static StyleAudit on(WebDriver driver) {
+        return new StyleAudit(driver);
+    }
+
+    /**
+     * The items to audit (xpath or CSS locator).
+     */
+    public StyleAudit scope(By locator) {
+        CompositeCondition.putLocator(spec, locator);
+        return this;
+    }
+
+    /**
+     * Audits only items with at least minCount descendants matching the CSS selector.
+     */
+    public StyleAudit onlyWhere(String cssSelector, int minCount) {
+        spec.put("where", cssSelector);
+        spec.put("whereMin", minCount);
+        return this;
+    }
+
+    /**
+     * A rule whose element must exist in every audited item.
+     */
+    public StyleAudit require(String name, String cssSelector, Check... checks) {
+        return rule(name, By.cssSelector(cssSelector), true, checks);
+    }
+
+    /**
+     * require() with an xpath or CSS locator evaluated relative to the item.
+     */
+    public StyleAudit require(String name, By locator, Check... checks) {
+        return rule(name, locator, true, checks);
+    }
+
+    /**
+     * A rule checked only in items that contain its element.
+     */
+    public StyleAudit ifPresent(String name, String cssSelector, Check... checks) {
+        return rule(name, By.cssSelector(cssSelector), false, checks);
+    }
+
+    private StyleAudit rule(String name, By locator, boolean required, Check... checks) {
+        List<Map<String, Object>> checkSpecs = new ArrayList<>();
+        for (Check check : checks) {
+            checkSpecs.add(check.toSpec());
+        }
+        Map<String, Object> rule = new HashMap<>();
+        rule.put("name", name);
+        CompositeCondition.putLocator(rule, locator);
+        rule.put("required", required);
+        rule.put("checks", checkSpecs);
+        rules.add(rule);
+        return this;
+    }
+
+    public static Check contains(String property, String value) {
+        return new Check(Collections.singletonList(property), "contains", value);
+    }
+
+    /**
+     * At least one of the properties contains the value.
+     */
+    public static Check anyContains(String value, String property, String... moreProperties) {
+        return new Check(properties(property, moreProperties), "contains", value);
+    }
+
+    public static Check notContains(String property, String value) {
+        return new Check(Collections.singletonList(property), "notContains", value);
+    }
+
+    /**
+     * None of the properties contains the value.
+     */
+    public static Check noneContains(String value, String property, String... moreProperties) {
+        return new Check(properties(property, moreProperties), "notContains", value);
+    }
+
+    public static Check equalTo(String property, String value) {
+        return new Check(Collections.singletonList(property), "equals", value);
+    }
+
+    public static Check matches(String property, String regex) {
+        return new Check(Collections.singletonList(property), "matches", regex);
+    }
+
+    private static List<String> properties(String property, String... moreProperties) {
+        List<String> properties = new ArrayList<>();
+        properties.add(property);
+        properties.addAll(Arrays.asList(moreProperties));
+        return properties;
+    }
+
+    /**
+     * One condition on one or more computed style properties.
+     */
+    public static final class Check {
+        private final List<String> properties;
+        private final String op;
+        private final String value;
+
+        private Check(List<String> properties, String op, String value) {
+            this.properties = properties;
+            this.op = op;
+            this.value = value;
+        }
+
+        private Map<String, Object> toSpec() {
+            Map<String, Object> check = new HashMap<>();
+            check.put("properties", properties);
+            check.put("op", op);
+            check.put("value", value);
+            return check;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public Result run() {
+        if (!spec.containsKey("value")) {
+            throw new IllegalStateException("No scope to audit");
+        }
+        long start = System.nanoTime();
+        Map<String, Object> result = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(SCRIPT, spec);
+        List<Violation> violations = new ArrayList<>();
+        for (Map<String, Object> violation : (List<Map<String, Object>>) result.get("violations")) {
+            violations.add(new Violation(((Number) violation.get("item")).intValue(), (String) violation.get("rule"),
+                    (String) violation.get("property"), (String) violation.get("actual"), (String) violation.get("expected")));
+        }
+        return new Result(violations, ((Number) result.get("items")).intValue(),
+                ((Number) result.get("checked")).intValue(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * A rule an item broke.
+     */
+    public static final class Violation {
+        private final int item;
+        private final String rule;
+        private final String property;
+        private final String actual;
+        private final String expected;
+
+        private Violation(int item, String rule, String property, String actual, String expected) {
+            this.item = item;
+            this.rule = rule;
+            this.property = property;
+            this.actual = actual;
+            this.expected = expected;
+        }
+
+        /**
+         * Index of the item among all items of the scope.
+         */
+        public int getItem() {
+            return item;
+        }
+
+        public String getRule() {
+            return rule;
+        }
+
+        /**
+         * The failed property (several joined with "|"), or null when the rule's element was missing.
+         */
+        public String getProperty() {
+            return property;
+        }
+
+        public String getActual() {
+            return actual;
+        }
+
+        public String getExpected() {
+            return expected;
+        }
+
+        @Override
+        public String toString() {
+            return "item " + item + ": " + rule + " ("
+                    + (property == null ? "no " + expected : property + " '" + actual + "', expected " + expected) + ")";
+        }
+    }
+
+    /**
+     * Violations of one audit run.
+     */
+    public static final class Result {
+        private final List<Violation> violations;
+        private final int items;
+        private final int checked;
+        private final long elapsedMillis;
+
+        private Result(List<Violation> violations, int items, int checked, long elapsedMillis) {
+            this.violations = Collections.unmodifiableList(violations);
+            this.items = items;
+            this.checked = checked;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public List<Violation> getViolations() {
+            return violations;
+        }
+
+        public boolean isClean() {
+            return violations.isEmpty();
+        }
+
+        /**
+         * Items found by the scope locator.
+         */
+        public int getItems() {
+            return items;
+        }
+
+        /**
+         * Items the rules were applied to (see onlyWhere()).
+         */
+        public int getChecked() {
+            return checked;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return violations.size() + " violations in " + checked + "/" + items + " items, " + elapsedMillis + "ms"
+                    + (violations.isEmpty() ? "" : ": " + violations);
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Actions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StyleDiff - Computed styles of many elements before and after hover or focus, captured
+ * and compared in one script call.
+ *
+ * The styles to compare are given per part: the target itself (properties()) or the first
+ * descendant matching a CSS selector (part()), e.g. the action buttons a product shows on
+ * hover. Two ways to apply the state:
+ *   forceHover/forceFocus - the page's :hover (or :focus) rules are copied onto a class that
+ *     is put on every target at once, so the whole set is checked in a single async script
+ *     that also waits for the transitions to end. Rules of stylesheets the page cannot read
+ *     (other origins) are not seen; getForcedRules() tells how many rules were applied.
+ *   pointerHover - a real mouse move onto one target with Actions, for effects that need
+ *     the pointer (script-driven hover) or when no rule could be forced.
+ */
+public class StyleDiff {
+    // Arguments: (spec, mode, timeoutMillis, callback); mode is capture, force or settle
+    static final String SCRIPT =
+            "var spec = arguments[0], mode = arguments[1], timeout = arguments[2], done = arguments[arguments.length - 1];"
+            + "var targets = spec.elements;"
+            + "if (!targets) {"
+            + "  if (spec.using === 'xpath') {"
+            + "    var r = document.evaluate(spec.value, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);"
+            + "    targets = [];"
+            + "    for (var i = 0; i < r.snapshotLength; i++) { targets.push(r.snapshotItem(i)); }"
+            + "  } else { targets = Array.prototype.slice.call(document.querySelectorAll(spec.value)); }"
+            + "}"
+            + "function capture() {"
+            + "  return targets.map(function (t) {"
+            + "    var out = {};"
+            + "    spec.parts.forEach(function (p) {"
+            + "      var el = p.selector ? t.querySelector(p.selector) : t, values = null;"
+            + "      if (el) {"
+            + "        var s = getComputedStyle(el);"
+            + "        values = {};"
+            + "        p.props.forEach(function (prop) { values[prop] = s.getPropertyValue(prop); });"
+            + "      }"
+            + "      out[p.name] = values;"
+            + "    });"
+            + "    return out;"
+            + "  });"
+            + "}"
+            + "function settle(then) {"
+            + "  var finished = false, animations = [];"
+            + "  function finish(settled) { if (!finished) { finished = true; then(settled); } }"
+            // Reading the animations flushes styles, so transitions started by the change are included
+            + "  targets.forEach(function (t) { if (t.getAnimations) { animations = animations.concat(t.getAnimations({subtree: true})); } });"
+            + "  if (!animations.length) { finish(true); return; }"
+            + "  setTimeout(finish, timeout, false);"
+            + "  Promise.all(animations.map(function (a) { return a.finished.catch(function () {}); })).then(function () { finish(true); });"
+            + "}"
+            + "if (mode === 'capture') { done({states: capture()}); return; }"
+            + "if (mode === 'settle') { settle(function (settled) { done({states: capture(), settled: settled}); }); return; }"
+            + "var before = capture(), cls = '__harness-force-' + spec.pseudo;"
+            + "var source = spec.pseudo === 'focus' ? ':(focus-within|focus-visible|focus)' : ':hover';"
+            + "var test = new RegExp(source + '(?![-\\\\w])'), replace = new RegExp(source + '(?![-\\\\w])', 'g');"
+            + "var rules = [], unreadable = 0;"
+            + "function collect(list) {"
+            + "  Array.prototype.forEach.call(list, function (rule) {"
+            + "    if (rule.selectorText !== undefined) {"
+            + "      if (test.test(rule.selectorText)) { rules.push(rule.selectorText.replace(replace, '.' + cls) + '{' + rule.style.cssText + '}'); }"
+            + "    } else if (rule.styleSheet) { collect(rule.styleSheet.cssRules); }"
+            + "    else if (rule.cssRules && (!rule.media || matchMedia(rule.media.mediaText).matches)) { collect(rule.cssRules); }"
+            + "  });"
+            + "}"
+            + "Array.prototype.forEach.call(document.styleSheets, function (sheet) {"
+            + "  try { collect(sheet.cssRules); } catch (e) { unreadable++; }"
+            + "});"
+            + "var style = document.createElement('style'), marked = [];"
+            + "style.textContent = rules.join('\\n');"
+            + "document.head.appendChild(style);"
+            + "var enter = spec.pseudo === 'focus' ? ['focusin'] : ['mouseover', 'mouseenter'];"
+            + "var leave = spec.pseudo === 'focus' ? ['focusout'] : ['mouseout', 'mouseleave'];"
+            + "function fire(el, types) { types.forEach(function (type) { el.dispatchEvent(new Event(type, {bubbles: type.indexOf('mouse') < 0 || type === 'mouseover' || type === 'mouseout'})); }); }"
+            + "targets.forEach(function (t) {"
+            // Hovering an element also hovers its ancestors
+            + "  for (var el = t; el && el.classList; el = el.parentElement) {"
+            + "    if (!el.classList.contains(cls)) { el.classList.add(cls); marked.push(el); }"
+            + "  }"
+            + "  fire(t, enter);"
+            + "});"
+            + "settle(function (settled) {"
+            + "  var after = capture();"
+            + "  targets.forEach(function (t) { fire(t, leave); });"
+            + "  marked.forEach(function (el) { el.classList.remove(cls); });"
+            + "  style.remove();"
+            + "  done({before: before, states: after, settled: settled, rules: rules.length, unreadable: unreadable});"
+            + "});";
+
+    private static final String SELF = "self";
+
+    private final WebDriver driver;
+    private final Map<String, Object> spec = new HashMap<>();
+    private final List<Map<String, Object>> parts = new ArrayList<>();
+
+    private StyleDiff(WebDriver driver) {
+        this.driver = driver;
+        spec.put("parts", parts);
+    }
+
+    public static StyleDiff on(WebDriver driver) {
+        return new StyleDiff(driver);
+    }
+
+    /**
+     * Compares every element matching the locator (xpath or CSS).
+     */
+    public StyleDiff targets(By locator) {
+        spec.remove("elements");
+        CompositeCondition.putLocator(spec, locator);
+        return this;
+    }
+
+    public StyleDiff target(WebElement element) {
+        spec.put("elements", Collections.singletonList(element));
+        return this;
+    }
+
+    /**
+     * Properties compared on the target itself.
+     */
+    public StyleDiff properties(String... properties) {
+        return part(SELF, null, properties);
+    }
+
+    /**
+     * Properties compared on the first descendant of the target matching the CSS selector;
+     * the part appearing or disappearing counts as a change of "present".
+     */
+    public StyleDiff part(String name, String cssSelector, String... properties) {
+        Map<String, Object> part = new HashMap<>();
+        part.put("name", name);
+        part.put("selector", cssSelector);
+        part.put("props", Arrays.asList(properties));
+        parts.add(part);
+        return this;
+    }
+
+    public Result forceHover(long timeoutMillis) {
+        return force("hover", timeoutMillis);
+    }
+
+    public Result forceFocus(long timeoutMillis) {
+        return force("focus", timeoutMillis);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Result force(String pseudo, long timeoutMillis) {
+        long start = System.nanoTime();
+        spec.put("pseudo", pseudo);
+        Map<String, Object> result = (Map<String, Object>) run("force", timeoutMillis);
+        return new Result((List<Map<String, Object>>) result.get("before"), (List<Map<String, Object>>) result.get("states"),
+                Boolean.TRUE.equals(result.get("settled")), ((Number) result.get("rules")).intValue(),
+                ((Number) result.get("unreadable")).intValue(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Moves the mouse onto the single target (see target()) and compares the styles once
+     * its transitions have ended. Costs three script calls and the move.
+     */
+    @SuppressWarnings("unchecked")
+    public Result pointerHover(Actions actions, long timeoutMillis) {
+        List<WebElement> elements = (List<WebElement>) spec.get("elements");
+        if (elements == null) {
+            throw new IllegalStateException("pointerHover needs a single target(WebElement)");
+        }
+        long start = System.nanoTime();
+        Map<String, Object> before = (Map<String, Object>) run("capture", timeoutMillis);
+        actions.moveToElement(elements.get(0)).perform();
+        Map<String, Object> after = (Map<String, Object>) run("settle", timeoutMillis);
+        return new Result((List<Map<String, Object>>) before.get("states"), (List<Map<String, Object>>) after.get("states"),
+                Boolean.TRUE.equals(after.get("settled")), -1, 0, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private Object run(String mode, long timeoutMillis) {
+        if (parts.isEmpty()) {
+            throw new IllegalStateException("No properties to compare");
+        }
+        if (!spec.containsKey("elements") && !spec.containsKey("value")) {
+            throw new IllegalStateException("No targets to compare");
+        }
+        return ((JavascriptExecutor) driver).executeAsyncScript(SCRIPT, spec, mode, timeoutMillis);
+    }
+
+    /**
+     * One property of one part that differs between the two captures.
+     */
+    public static final class Change {
+        private final String part;
+        private final String property;
+        private final String before;
+        private final String after;
+
+        private Change(String part, String property, String before, String after) {
+            this.part = part;
+            this.property = property;
+            this.before = before;
+            this.after = after;
+        }
+
+        public String getPart() {
+            return part;
+        }
+
+        public String getProperty() {
+            return property;
+        }
+
+        public String getBefore() {
+            return before;
+        }
+
+        public String getAfter() {
+            return after;
+        }
+
+        @Override
+        public String toString() {
+            return (part.equals(SELF) ? "" : part + ".") + property + ": " + before + " -> " + after;
+        }
+    }
+
+    /**
+     * The changes of each target, in target order.
+     */
+    public static final class Result {
+        private final List<List<Change>> changes = new ArrayList<>();
+        private final boolean settled;
+        private final int forcedRules;
+        private final int unreadableSheets;
+        private final long elapsedMillis;
+
+        @SuppressWarnings("unchecked")
+        private Result(List<Map<String, Object>> before, List<Map<String, Object>> after, boolean settled,
+                       int forcedRules, int unreadableSheets, long elapsedMillis) {
+            this.settled = settled;
+            this.forcedRules = forcedRules;
+            this.unreadableSheets = unreadableSheets;
+            this.elapsedMillis = elapsedMillis;
+
+            for (int i = 0; i < Math.min(before.size(), after.size()); i++) {
+                List<Change> targetChanges = new ArrayList<>();
+                for (Map.Entry<String, Object> part : before.get(i).entrySet()) {
+                    Map<String, Object> was = (Map<String, Object>) part.getValue();
+                    Map<String, Object> now = (Map<String, Object>) after.get(i).get(part.getKey());
+                    if (was == null || now == null) {
+                        if (was != now) {
+                            targetChanges.add(new Change(part.getKey(), "present", String.valueOf(was != null), String.valueOf(now != null)));
+                        }
+                        continue;
+                    }
+                    for (Map.Entry<String, Object> property : was.entrySet()) {
+                        String from = String.valueOf(property.getValue());
+                        String to = String.valueOf(now.get(property.getKey()));
+                        if (!from.equals(to)) {
+                            targetChanges.add(new Change(part.getKey(), property.getKey(), from, to));
+                        }
+                    }
+                }
+                changes.add(Collections.unmodifiableList(targetChanges));
+            }
+        }
+
+        public int size() {
+            return changes.size();
+        }
+
+        public List<Change> getChanges(int index) {
+            return changes.get(index);
+        }
+
+        public boolean changed(int index) {
+            return !changes.get(index).isEmpty();
+        }
+
+        public int getChangedCount() {
+            int count = 0;
+            for (List<Change> targetChanges : changes) {
+                if (!targetChanges.isEmpty()) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Index of the first target whose styles did not change, or -1.
+         */
+        public int firstUnchanged() {
+            for (int i = 0; i < changes.size(); i++) {
+                if (changes.get(i).isEmpty()) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * False if transitions were still running when the after-capture was taken.
+         */
+        public boolean isSettled() {
+            return settled;
+        }
+
+        /**
+         * Number of :hover/:focus rules applied in force mode; -1 for pointerHover.
+         */
+        public int getForcedRules() {
+            return forcedRules;
+        }
+
+        /**
+         * Stylesheets whose rules the page could not read (other origins), force mode only.
+         */
+        public int getUnreadableSheets() {
+            return unreadableSheets;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return getChangedCount() + "/" + size() + " changed in " + elapsedMillis + "ms"
+                    + (forcedRules >= 0 ? ", " + forcedRules + " forced rules" : ", pointer")
+                    + (unreadableSheets > 0 ? ", " + unreadableSheets + " unreadable sheets" : "")
+                    + (settled ? "" : ", transitions still running");
+        }
+    }
+}
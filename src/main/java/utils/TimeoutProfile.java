@@ -0,0 +1,284 @@
+package utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * TimeoutProfile - Immutable snapshot of every timeout and polling interval the harness uses.
+ *
+ * configured() takes the values from config.properties unchanged. calibrate() first probes
+ * base.url (time to first byte and time to fetch the whole document, median of a few requests)
+ * and scales the timeouts to the environment:
+ *   local - a stand-in on this machine: waits that fail, fail within a second or two
+ *   lan   - a nearby server: explicit waits shrink towards 20x the page fetch time
+ *   wan   - a slow or distant server: the configured values, stretched when fetches are slow
+ * Select a profile with timeout.profile=configured|auto|local|lan|wan. Only a profile named
+ * explicitly shortens the configured timeouts; auto keeps them as a floor and only tightens
+ * polling or stretches the timeouts for slow servers. auto picks local only for a loopback
+ * or private base.url host.
+ */
+public final class TimeoutProfile {
+    private static final int PROBE_REQUESTS = 3;
+    private static final long LOCAL_MAX_FETCH_MILLIS = 50;
+    private static final long LAN_MAX_FETCH_MILLIS = 300;
+    private static final long[] UNMEASURED = {0, 0};
+
+    private final String name;
+    private final Duration implicitWait;
+    private final Duration explicitWait;
+    private final Duration pageLoadTimeout;
+    private final Duration setupPageLoadTimeout;
+    private final Duration setupReadyTimeout;
+    private final long pollInitialMillis;
+    private final long pollMaxMillis;
+
+    private TimeoutProfile(String name, Duration implicitWait, Duration explicitWait, Duration pageLoadTimeout,
+                           Duration setupPageLoadTimeout, Duration setupReadyTimeout,
+                           long pollInitialMillis, long pollMaxMillis) {
+        this.name = name;
+        this.implicitWait = implicitWait;
+        this.explicitWait = explicitWait;
+        this.pageLoadTimeout = pageLoadTimeout;
+        this.setupPageLoadTimeout = setupPageLoadTimeout;
+        this.setupReadyTimeout = setupReadyTimeout;
+        this.pollInitialMillis = Math.max(1, pollInitialMillis);
+        this.pollMaxMillis = Math.max(this.pollInitialMillis, pollMaxMillis);
+    }
+
+    /**
+     * The values of config.properties (and -D overrides), without any calibration.
+     */
+    public static TimeoutProfile configured() {
+        return new TimeoutProfile("configured",
+                Duration.ofSeconds(ConfigReader.getLongProperty("implicit.wait", 5)),
+                Duration.ofSeconds(ConfigReader.getLongProperty("explicit.wait", 15)),
+                Duration.ofSeconds(ConfigReader.getLongProperty("page.load.timeout", 30)),
+                Duration.ofSeconds(20),
+                Duration.ofSeconds(10),
+                ConfigReader.getLongProperty("wait.poll.initial.ms", 5),
+                ConfigReader.getLongProperty("wait.poll.max.ms", 500));
+    }
+
+    /**
+     * Builds the profile selected by timeout.profile from a probe of base.url. In auto mode
+     * an unreachable base.url means configured() is used.
+     */
+    public static TimeoutProfile calibrate() {
+        String selected = ConfigReader.getProperty("timeout.profile", "configured").toLowerCase();
+        TimeoutProfile base = configured();
+        if (selected.equals("configured")) {
+            return base;
+        }
+
+        long[] latency = probe(ConfigReader.getBaseUrl());
+        if (latency == null) {
+            if (selected.equals("auto")) {
+                System.out.println("[TIMEOUTS] Could not probe " + ConfigReader.getBaseUrl() + ", using configured timeouts");
+                return base;
+            }
+            // A named profile still applies, at its lower bounds
+            latency = UNMEASURED;
+        }
+        long firstByteMillis = latency[0];
+        long fetchMillis = latency[1];
+
+        boolean auto = selected.equals("auto");
+        if (auto) {
+            // A fast answer from a public host is more likely a cache or CDN than a local stand-in
+            selected = fetchMillis <= LOCAL_MAX_FETCH_MILLIS && isLocalHost(ConfigReader.getBaseUrl()) ? "local"
+                    : fetchMillis <= LAN_MAX_FETCH_MILLIS ? "lan" : "wan";
+        }
+        TimeoutProfile profile = derive(selected, base, fetchMillis);
+        if (auto) {
+            profile = profile.atLeast(base);
+        }
+        String measured = latency == UNMEASURED ? "not reachable"
+                : "first byte " + firstByteMillis + "ms, document " + fetchMillis + "ms";
+        System.out.println("[TIMEOUTS] " + ConfigReader.getBaseUrl() + " " + measured + " -> " + profile);
+        return profile;
+    }
+
+    static TimeoutProfile derive(String name, TimeoutProfile base, long fetchMillis) {
+        switch (name) {
+            case "local":
+                return new TimeoutProfile("local",
+                        min(base.implicitWait, Duration.ofSeconds(1)),
+                        clamp(Duration.ofMillis(fetchMillis * 20), Duration.ofMillis(500), base.explicitWait),
+                        min(base.pageLoadTimeout, Duration.ofSeconds(10)),
+                        min(base.setupPageLoadTimeout, Duration.ofSeconds(10)),
+                        min(base.setupReadyTimeout, Duration.ofSeconds(3)),
+                        Math.min(base.pollInitialMillis, 2),
+                        Math.min(base.pollMaxMillis, 100));
+            case "lan":
+                return new TimeoutProfile("lan",
+                        base.implicitWait,
+                        clamp(Duration.ofMillis(fetchMillis * 20), Duration.ofSeconds(3), base.explicitWait),
+                        base.pageLoadTimeout,
+                        base.setupPageLoadTimeout,
+                        base.setupReadyTimeout,
+                        base.pollInitialMillis,
+                        Math.min(base.pollMaxMillis, 250));
+            case "wan":
+                // Never below the configured values; up to 4x for very slow servers
+                return new TimeoutProfile("wan",
+                        base.implicitWait,
+                        clamp(Duration.ofMillis(fetchMillis * 20), base.explicitWait, base.explicitWait.multipliedBy(4)),
+                        clamp(Duration.ofMillis(fetchMillis * 40), base.pageLoadTimeout, base.pageLoadTimeout.multipliedBy(4)),
+                        clamp(Duration.ofMillis(fetchMillis * 30), base.setupPageLoadTimeout, base.setupPageLoadTimeout.multipliedBy(4)),
+                        clamp(Duration.ofMillis(fetchMillis * 15), base.setupReadyTimeout, base.setupReadyTimeout.multipliedBy(4)),
+                        base.pollInitialMillis * 2,
+                        Math.max(base.pollMaxMillis, 1000));
+            default:
+                throw new IllegalArgumentException("Unknown timeout.profile: " + name
+                        + " (use auto, configured, local, lan or wan)");
+        }
+    }
+
+    /**
+     * This profile with no timeout shorter than in base; polling intervals are kept.
+     */
+    private TimeoutProfile atLeast(TimeoutProfile base) {
+        return new TimeoutProfile(name,
+                max(implicitWait, base.implicitWait),
+                max(explicitWait, base.explicitWait),
+                max(pageLoadTimeout, base.pageLoadTimeout),
+                max(setupPageLoadTimeout, base.setupPageLoadTimeout),
+                max(setupReadyTimeout, base.setupReadyTimeout),
+                pollInitialMillis,
+                pollMaxMillis);
+    }
+
+    /**
+     * True when the host of the URL is this machine or on a private network.
+     */
+    static boolean isLocalHost(String url) {
+        try {
+            String host = new URL(url).getHost();
+            if (host.isEmpty()) {
+                return false;
+            }
+            InetAddress address = InetAddress.getByName(host);
+            return address.isLoopbackAddress() || address.isSiteLocalAddress() || address.isLinkLocalAddress();
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Median time to first byte and to the end of the document over a few GET requests,
+     * after one request that warms up DNS, TLS and the server. Null if a request fails or
+     * does not answer 2xx: a quick error page or redirect says nothing about the real page.
+     */
+    private static long[] probe(String url) {
+        if (url == null) {
+            return null;
+        }
+        long[] firstByte = new long[PROBE_REQUESTS];
+        long[] fetch = new long[PROBE_REQUESTS];
+        byte[] buffer = new byte[16 * 1024];
+
+        for (int i = -1; i < PROBE_REQUESTS; i++) {
+            HttpURLConnection connection = null;
+            try {
+                long start = System.nanoTime();
+                connection = (HttpURLConnection) new URL(url).openConnection();
+                connection.setConnectTimeout(5000);
+                connection.setReadTimeout(10000);
+                connection.setInstanceFollowRedirects(false);
+                int status = connection.getResponseCode();
+                long headers = System.nanoTime();
+                if (status < 200 || status >= 300) {
+                    System.out.println("[TIMEOUTS] " + url + " answered HTTP " + status);
+                    return null;
+                }
+                try (InputStream in = connection.getInputStream()) {
+                    while (in.read(buffer) != -1) {
+                        // Only the time matters
+                    }
+                }
+                long end = System.nanoTime();
+                if (i >= 0) {
+                    firstByte[i] = (headers - start) / 1_000_000;
+                    fetch[i] = (end - start) / 1_000_000;
+                }
+            } catch (IOException | RuntimeException e) {
+                return null;
+            } finally {
+                if (connection != null) {
+                    connection.disconnect();
+                }
+            }
+        }
+        Arrays.sort(firstByte);
+        Arrays.sort(fetch);
+        return new long[]{firstByte[PROBE_REQUESTS / 2], fetch[PROBE_REQUESTS / 2]};
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private static Duration max(Duration a, Duration b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    private static Duration clamp(Duration value, Duration lower, Duration upper) {
+        if (lower.compareTo(upper) > 0) {
+            return upper;
+        }
+        return value.compareTo(lower) < 0 ? lower : value.compareTo(upper) > 0 ? upper : value;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The configured implicit wait of this profile; DriverManager applies zero instead in explicit-only mode.
+     */
+    public Duration getImplicitWait() {
+        return implicitWait;
+    }
+
+    public Duration getExplicitWait() {
+        return explicitWait;
+    }
+
+    public Duration getPageLoadTimeout() {
+        return pageLoadTimeout;
+    }
+
+    /**
+     * Page load timeout while BaseTest opens base.url before each test.
+     */
+    public Duration getSetupPageLoadTimeout() {
+        return setupPageLoadTimeout;
+    }
+
+    /**
+     * How long BaseTest waits for document.readyState after opening base.url.
+     */
+    public Duration getSetupReadyTimeout() {
+        return setupReadyTimeout;
+    }
+
+    public long getPollInitialMillis() {
+        return pollInitialMillis;
+    }
+
+    public long getPollMaxMillis() {
+        return pollMaxMillis;
+    }
+
+    @Override
+    public String toString() {
+        return name + " profile: implicit " + implicitWait.toMillis() + "ms, explicit " + explicitWait.toMillis()
+                + "ms, page load " + pageLoadTimeout.toMillis() + "ms, setup " + setupPageLoadTimeout.toMillis()
+                + "/" + setupReadyTimeout.toMillis() + "ms, polling " + pollInitialMillis + "-" + pollMaxMillis + "ms";
+    }
+}
@@ -1,41 +1,87 @@
 package utils;
 
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptException;
 import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.ScriptTimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * WaitHelper - Methods for explicit waits to replace Thread.sleep()
  */
 public class WaitHelper {
+    // Async wait scripts: arguments are (element or null, quietMillis, timeoutMillis, callback)
+    private static final String DOM_SETTLED_SCRIPT =
+            "var root = arguments[0] || document.documentElement, quiet = arguments[1], timeout = arguments[2];"
+            + "var done = arguments[arguments.length - 1], quietTimer, timeoutTimer;"
+            + "var observer = new MutationObserver(function () { clearTimeout(quietTimer); quietTimer = setTimeout(finish, quiet, true); });"
+            + "function finish(settled) { observer.disconnect(); clearTimeout(quietTimer); clearTimeout(timeoutTimer); done(settled); }"
+            + "observer.observe(root, {childList: true, subtree: true, attributes: true, characterData: true});"
+            + "quietTimer = setTimeout(finish, quiet, true);"
+            + "timeoutTimer = setTimeout(finish, timeout, false);";
+
+    private static final String DOM_CHANGE_SCRIPT =
+            "var root = arguments[0] || document.documentElement, timeout = arguments[2];"
+            + "var done = arguments[arguments.length - 1], timeoutTimer;"
+            + "var observer = new MutationObserver(function () { finish(true); });"
+            + "function finish(changed) { observer.disconnect(); clearTimeout(timeoutTimer); done(changed); }"
+            + "observer.observe(root, {childList: true, subtree: true, attributes: true, characterData: true});"
+            + "timeoutTimer = setTimeout(finish, timeout, false);";
+
+    private static final String TRANSITIONS_END_SCRIPT =
+            "var el = arguments[0], timeout = arguments[2], done = arguments[arguments.length - 1];"
+            + "var timeoutTimer = setTimeout(function () { done(false); }, timeout);"
+            + "function finish() { clearTimeout(timeoutTimer); done(true); }"
+            + "if (el.getAnimations) {"
+            + "  var running = el.getAnimations({subtree: true});"
+            + "  if (!running.length) { finish(); return; }"
+            + "  Promise.all(running.map(function (a) { return a.finished.catch(function () {}); })).then(finish);"
+            + "} else {"
+            + "  var style = getComputedStyle(el);"
+            + "  var longest = Math.max.apply(null, style.transitionDuration.split(',').map(parseFloat));"
+            + "  if (!longest) { finish(); return; }"
+            + "  el.addEventListener('transitionend', finish, {once: true});"
+            + "  el.addEventListener('transitioncancel', finish, {once: true});"
+            + "}";
+
+    private static final String SCROLL_END_SCRIPT =
+            "var timeout = arguments[2], done = arguments[arguments.length - 1];"
+            + "var deadline = Date.now() + timeout, lastX = scrollX, lastY = scrollY, stableFrames = 0;"
+            + "(function check() {"
+            + "  if (scrollX === lastX && scrollY === lastY) { stableFrames++; } else { stableFrames = 0; lastX = scrollX; lastY = scrollY; }"
+            + "  if (stableFrames >= 3) { done(true); return; }"
+            + "  if (Date.now() > deadline) { done(false); return; }"
+            + "  requestAnimationFrame(check);"
+            + "})();";
+
     private WebDriver driver;
-    private WebDriverWait wait;
-    private WebDriverWait shortWait;
+    private AdaptiveWait wait;
+    private long explicitWaitMillis;
 
     public WaitHelper(WebDriver driver) {
         this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(
-                Long.parseLong(ConfigReader.getProperty("explicit.wait"))
-        ));
-        this.shortWait = new WebDriverWait(driver, Duration.ofSeconds(3));
+        this.explicitWaitMillis = ConfigReader.getTimeouts().getExplicitWait().toMillis();
+        this.wait = new AdaptiveWait(driver, Duration.ofMillis(explicitWaitMillis));
     }
 
     public void waitForElementVisible(WebElement element) {
-        wait.until(ExpectedConditions.visibilityOf(element));
+        wait.until(key("visible"), ExpectedConditions.visibilityOf(element));
     }
 
     public void waitForElementClickable(WebElement element) {
-        wait.until(ExpectedConditions.elementToBeClickable(element));
+        wait.until(key("clickable"), ExpectedConditions.elementToBeClickable(element));
     }
 
     public boolean waitForUrlContains(String urlPart) {
         try {
-            wait.until(ExpectedConditions.urlContains(urlPart));
+            wait.until(key("urlContains"), ExpectedConditions.urlContains(urlPart));
             return true;
         } catch (Exception e) {
             return false;
@@ -44,7 +90,7 @@ public class WaitHelper {
 
     public boolean waitForUrlToBe(String url) {
         try {
-            wait.until(ExpectedConditions.urlToBe(url));
+            wait.until(key("urlToBe"), ExpectedConditions.urlToBe(url));
             return true;
         } catch (Exception e) {
             return false;
@@ -53,7 +99,7 @@ public class WaitHelper {
 
     public boolean waitForUrlToChange(String currentUrl) {
         try {
-            wait.until(driver -> !driver.getCurrentUrl().equals(currentUrl));
+            wait.until(key("urlChange"), driver -> !driver.getCurrentUrl().equals(currentUrl));
             return true;
         } catch (Exception e) {
             return false;
@@ -61,22 +107,57 @@ public class WaitHelper {
     }
 
     public void waitForElementInvisible(WebElement element) {
-        wait.until(ExpectedConditions.invisibilityOf(element));
+        wait.until(key("invisible"), ExpectedConditions.invisibilityOf(element));
     }
 
     public void waitForPageLoad() {
-        wait.until(driver -> ((JavascriptExecutor) driver)
+        wait.until(key("pageLoad"), driver -> ((JavascriptExecutor) driver)
                 .executeScript("return document.readyState").equals("complete"));
     }
 
+    /**
+     * Waits until the page's network traffic has been quiet for quietMillis, using the
+     * DevTools request tracking of NetworkMonitor. Browsers without DevTools fall back to
+     * waiting for document.readyState.
+     *
+     * @return false if requests were still running when the explicit wait timed out
+     */
+    public boolean waitForNetworkIdle(long quietMillis) {
+        NetworkMonitor monitor = null;
+        try {
+            monitor = NetworkMonitor.of(driver);
+        } catch (Exception e) {
+            // DevTools session unavailable (e.g. window just closed): use readyState instead
+        }
+        if (monitor == null) {
+            try {
+                waitForPageLoad();
+                return true;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+        long start = System.nanoTime();
+        boolean idle = monitor.awaitIdle(quietMillis, explicitWaitMillis);
+        WaitStats.record(key("networkIdle"), idle ? WaitStats.Outcome.SATISFIED : WaitStats.Outcome.TIMED_OUT, start);
+        return idle;
+    }
+
+    /**
+     * Waits for network idle with the quiet period from network.idle.quiet.ms.
+     */
+    public boolean waitForNetworkIdle() {
+        return waitForNetworkIdle(ConfigReader.getLongProperty("network.idle.quiet.ms", 500));
+    }
+
     public void waitForAjaxComplete() {
-        wait.until(driver -> ((JavascriptExecutor) driver)
+        wait.until(key("ajaxComplete"), driver -> ((JavascriptExecutor) driver)
                 .executeScript("return jQuery.active == 0"));
     }
 
     public boolean waitForElementPresent(By locator) {
         try {
-            wait.until(ExpectedConditions.presenceOfElementLocated(locator));
+            wait.until(key("present"), ExpectedConditions.presenceOfElementLocated(locator));
             return true;
         } catch (Exception e) {
             return false;
@@ -84,25 +165,140 @@ public class WaitHelper {
     }
 
     public void waitForElementAttributeContains(WebElement element, String attribute, String value) {
-        wait.until(ExpectedConditions.attributeContains(element, attribute, value));
+        wait.until(key("attributeContains"), ExpectedConditions.attributeContains(element, attribute, value));
     }
 
     public void waitForTextToBePresentInElement(WebElement element, String text) {
-        wait.until(ExpectedConditions.textToBePresentInElement(element, text));
+        wait.until(key("textPresent"), ExpectedConditions.textToBePresentInElement(element, text));
+    }
+
+    /**
+     * Waits until nothing under the element (the whole document when null) has changed for
+     * quietMillis. A MutationObserver inside an async script reports the changes, so the call
+     * returns as soon as the page is quiet instead of sleeping for a fixed time.
+     *
+     * @return false if the DOM was still changing when the timeout passed
+     */
+    public boolean waitForDomSettled(WebElement root, long quietMillis, long timeoutMillis) {
+        return runAsyncWait("domSettled", DOM_SETTLED_SCRIPT, root, quietMillis, timeoutMillis);
+    }
+
+    /**
+     * Waits for the next change under the element (the whole document when null).
+     *
+     * @return false if nothing changed before the timeout
+     */
+    public boolean waitForDomChange(WebElement root, long timeoutMillis) {
+        return runAsyncWait("domChange", DOM_CHANGE_SCRIPT, root, 0, timeoutMillis);
+    }
+
+    /**
+     * Waits until the CSS transitions and animations running on the element or its
+     * descendants have finished. Returns immediately when nothing is animating.
+     *
+     * @return false if something was still animating when the timeout passed
+     */
+    public boolean waitForTransitionsEnd(WebElement element, long timeoutMillis) {
+        return runAsyncWait("transitionsEnd", TRANSITIONS_END_SCRIPT, element, 0, timeoutMillis);
+    }
+
+    /**
+     * Waits until the page has stopped scrolling (e.g. after a smooth scrollIntoView).
+     *
+     * @return false if the page was still scrolling when the timeout passed
+     */
+    public boolean waitForScrollEnd(long timeoutMillis) {
+        return runAsyncWait("scrollEnd", SCROLL_END_SCRIPT, null, 0, timeoutMillis);
     }
 
-    public void waitShort(int milliseconds) {
+    /**
+     * Waits until every part of the composite condition holds in the same poll. Each poll is
+     * a single script call, however many conditions are combined. Never throws on timeout;
+     * check isSatisfied() on the result.
+     */
+    @SuppressWarnings("unchecked")
+    public CompositeCondition.Result waitForAll(CompositeCondition condition) {
+        List<Map<String, Object>> checks = condition.getChecks();
+        List<String> names = condition.getNames();
+        int size = checks.size();
+        long start = System.nanoTime();
+        long[] becameTrueAt = new long[size];
+        boolean[] states = new boolean[size];
+        List<Long> counts = new ArrayList<>();
+        String[] url = new String[1];
+
+        boolean satisfied;
         try {
-            wait.until(driver -> {
+            wait.until(key(condition.signature()), d -> {
+                Map<String, Object> poll;
                 try {
-                    Thread.sleep(milliseconds);
-                    return true;
-                } catch (InterruptedException e) {
-                    return false;
+                    poll = (Map<String, Object>) ((JavascriptExecutor) d).executeScript(CompositeCondition.SCRIPT, checks);
+                } catch (JavascriptException | ScriptTimeoutException e) {
+                    // Document is being replaced; ask again on the next poll
+                    return null;
                 }
+                long elapsed = (System.nanoTime() - start) / 1_000_000;
+                List<Boolean> polled = (List<Boolean>) poll.get("states");
+                boolean all = true;
+                for (int i = 0; i < size; i++) {
+                    boolean now = Boolean.TRUE.equals(polled.get(i));
+                    if (now && !states[i]) {
+                        becameTrueAt[i] = elapsed;
+                    }
+                    states[i] = now;
+                    all &= now;
+                }
+                counts.clear();
+                for (Object count : (List<Object>) poll.get("counts")) {
+                    counts.add(((Number) count).longValue());
+                }
+                url[0] = (String) poll.get("url");
+                return all;
             });
+            satisfied = true;
         } catch (Exception e) {
-            // Ignore
+            satisfied = false;
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        String lastSatisfied = null;
+        List<String> pending = new ArrayList<>();
+        long latest = -1;
+        for (int i = 0; i < size; i++) {
+            if (!states[i]) {
+                pending.add(names.get(i));
+            } else if (satisfied && becameTrueAt[i] >= latest) {
+                latest = becameTrueAt[i];
+                lastSatisfied = names.get(i);
+            }
+        }
+        return new CompositeCondition.Result(satisfied, lastSatisfied, pending, becameTrueAt, counts, url[0], elapsedMillis);
+    }
+
+    /**
+     * Names a condition together with the page-object call site that waits for it, so
+     * AdaptiveWait learns timings and WaitStats reports latencies per place in the flow
+     * rather than per condition type.
+     */
+    private static String key(String condition) {
+        return condition + "@" + StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> !frame.getClassName().equals(WaitHelper.class.getName()))
+                .findFirst()
+                .map(frame -> frame.getClassName() + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                .orElse("unknown"));
+    }
+
+    private boolean runAsyncWait(String condition, String script, WebElement element, long quietMillis, long timeoutMillis) {
+        long start = System.nanoTime();
+        try {
+            Object result = ((JavascriptExecutor) driver).executeAsyncScript(script, element, quietMillis, timeoutMillis);
+            boolean satisfied = Boolean.TRUE.equals(result);
+            WaitStats.record(key(condition), satisfied ? WaitStats.Outcome.SATISFIED : WaitStats.Outcome.TIMED_OUT, start);
+            return satisfied;
+        } catch (Exception e) {
+            // Stale element or navigation while waiting: nothing left to wait for
+            WaitStats.record(key(condition), WaitStats.Outcome.FAILED, start);
+            return false;
         }
     }
 
@@ -116,7 +312,7 @@ public class WaitHelper {
 
     public boolean isElementDisplayedWithRetry(WebElement element) {
         try {
-            return wait.until(driver -> {
+            return wait.until(key("displayed"), driver -> {
                 try {
                     return element.isDisplayed();
                 } catch (Exception e) {
@@ -130,7 +326,7 @@ public class WaitHelper {
 
     public boolean waitForElementCount(By locator, int expectedCount) {
         try {
-            return wait.until(driver -> driver.findElements(locator).size() == expectedCount);
+            return wait.until(key("elementCount"), driver -> driver.findElements(locator).size() == expectedCount);
         } catch (Exception e) {
             return false;
         }
@@ -138,7 +334,7 @@ public class WaitHelper {
 
     public void waitForStaleElement(WebElement element) {
         try {
-            wait.until(ExpectedConditions.stalenessOf(element));
+            wait.until(key("stale"), ExpectedConditions.stalenessOf(element));
         } catch (Exception e) {
             // Element is already stale or not found
         }
@@ -0,0 +1,215 @@
+package utils;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * WaitStats - Latency histograms of every explicit wait, per condition and call site.
+ *
+ * Keys have the form "condition@pages.SomePage.method:line" (see WaitHelper). Each key keeps
+ * one histogram per outcome, so the fast successful waits and the full-length timeouts of
+ * the same call site are reported apart. Histograms use HDR-style log-linear buckets
+ * (16 per power of two, about 6% resolution) updated lock-free, so recording costs a few
+ * atomic increments.
+ *
+ * printReport() and writeJson() are called once at the end of the suite.
+ */
+public class WaitStats {
+
+    public enum Outcome { SATISFIED, TIMED_OUT, FAILED }
+
+    private static final Map<String, Site> sites = new ConcurrentHashMap<>();
+
+    /**
+     * Log-linear histogram of durations in microseconds.
+     */
+    static final class Histogram {
+        private static final int SUB_BUCKET_BITS = 4;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BUCKET_BITS) * SUB_BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalMicros = new AtomicLong();
+        private final AtomicLong maxMicros = new AtomicLong();
+
+        void record(long micros) {
+            long value = Math.max(0, micros);
+            counts.incrementAndGet(indexOf(value));
+            count.incrementAndGet();
+            totalMicros.addAndGet(value);
+            maxMicros.accumulateAndGet(value, Math::max);
+        }
+
+        static int indexOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+            return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+        }
+
+        /**
+         * Largest value that falls into the bucket.
+         */
+        static long highestValueOf(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int shift = index / SUB_BUCKETS - 1;
+            long sub = index % SUB_BUCKETS + SUB_BUCKETS;
+            return ((sub + 1) << shift) - 1;
+        }
+
+        long getCount() {
+            return count.get();
+        }
+
+        long getTotalMicros() {
+            return totalMicros.get();
+        }
+
+        long getMaxMicros() {
+            return maxMicros.get();
+        }
+
+        /**
+         * The value below which the given share of recorded durations fall, e.g. 0.99 for p99.
+         */
+        long percentile(double quantile) {
+            long total = count.get();
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                seen += counts.get(i);
+                if (seen >= rank) {
+                    return Math.min(highestValueOf(i), maxMicros.get());
+                }
+            }
+            return maxMicros.get();
+        }
+    }
+
+    private static final class Site {
+        private final Histogram[] outcomes = new Histogram[Outcome.values().length];
+
+        private Site() {
+            for (int i = 0; i < outcomes.length; i++) {
+                outcomes[i] = new Histogram();
+            }
+        }
+
+        private Histogram get(Outcome outcome) {
+            return outcomes[outcome.ordinal()];
+        }
+
+        private long totalMicros() {
+            long total = 0;
+            for (Histogram histogram : outcomes) {
+                total += histogram.getTotalMicros();
+            }
+            return total;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return ConfigReader.getBooleanProperty("wait.stats", true);
+    }
+
+    public static void record(String key, Outcome outcome, long startNanos) {
+        if (isEnabled()) {
+            sites.computeIfAbsent(key, k -> new Site()).get(outcome).record((System.nanoTime() - startNanos) / 1_000);
+        }
+    }
+
+    /**
+     * Prints one line per wait call site, the most expensive first.
+     */
+    public static void printReport() {
+        List<Map.Entry<String, Site>> ordered = ordered();
+        if (ordered.isEmpty()) {
+            return;
+        }
+        int limit = ConfigReader.getIntProperty("wait.stats.report.top", 25);
+        System.out.println("[WAITS] Explicit waits by total time (ms; percentiles of satisfied waits)");
+        System.out.println(String.format("[WAITS] %9s %6s %5s %8s %8s %8s %8s  %s",
+                "total", "calls", "t/o", "p50", "p90", "p99", "max", "wait"));
+        for (Map.Entry<String, Site> entry : ordered.subList(0, Math.min(limit, ordered.size()))) {
+            Site site = entry.getValue();
+            Histogram satisfied = site.get(Outcome.SATISFIED);
+            long calls = 0;
+            for (Histogram histogram : site.outcomes) {
+                calls += histogram.getCount();
+            }
+            long failures = site.get(Outcome.TIMED_OUT).getCount() + site.get(Outcome.FAILED).getCount();
+            System.out.println(String.format("[WAITS] %9d %6d %5d %8.1f %8.1f %8.1f %8.1f  %s",
+                    site.totalMicros() / 1_000, calls, failures,
+                    satisfied.percentile(0.50) / 1_000.0, satisfied.percentile(0.90) / 1_000.0,
+                    satisfied.percentile(0.99) / 1_000.0, satisfied.getMaxMicros() / 1_000.0, entry.getKey()));
+        }
+    }
+
+    /**
+     * Writes every call site with per-outcome counts, totals and percentiles to
+     * wait.stats.file (target/wait-stats.json by default).
+     */
+    public static void writeJson() {
+        List<Map.Entry<String, Site>> ordered = ordered();
+        if (ordered.isEmpty()) {
+            return;
+        }
+        List<Map<String, Object>> waits = new ArrayList<>();
+        for (Map.Entry<String, Site> entry : ordered) {
+            int at = entry.getKey().indexOf('@');
+            Map<String, Object> wait = new LinkedHashMap<>();
+            wait.put("condition", at < 0 ? entry.getKey() : entry.getKey().substring(0, at));
+            wait.put("callSite", at < 0 ? "" : entry.getKey().substring(at + 1));
+            wait.put("totalMillis", entry.getValue().totalMicros() / 1_000);
+            for (Outcome outcome : Outcome.values()) {
+                Histogram histogram = entry.getValue().get(outcome);
+                if (histogram.getCount() == 0) {
+                    continue;
+                }
+                Map<String, Object> stats = new LinkedHashMap<>();
+                stats.put("count", histogram.getCount());
+                stats.put("totalMillis", histogram.getTotalMicros() / 1_000);
+                stats.put("p50Millis", histogram.percentile(0.50) / 1_000.0);
+                stats.put("p90Millis", histogram.percentile(0.90) / 1_000.0);
+                stats.put("p99Millis", histogram.percentile(0.99) / 1_000.0);
+                stats.put("maxMillis", histogram.getMaxMicros() / 1_000.0);
+                wait.put(outcome.name().toLowerCase(), stats);
+            }
+            waits.add(wait);
+        }
+
+        Path file = Paths.get(ConfigReader.getProperty("wait.stats.file", "target/wait-stats.json"));
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Files.write(file, new Json().toJson(waits).getBytes(StandardCharsets.UTF_8));
+            System.out.println("[WAITS] Wait statistics written to " + file);
+        } catch (IOException e) {
+            System.out.println("[WAITS] Could not write " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static List<Map.Entry<String, Site>> ordered() {
+        List<Map.Entry<String, Site>> ordered = new ArrayList<>(sites.entrySet());
+        ordered.sort((a, b) -> Long.compare(b.getValue().totalMicros(), a.getValue().totalMicros()));
+        return ordered;
+    }
+}
@@ -0,0 +1,145 @@
+package listeners;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+
+import utils.ConfigReader;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DurationRecorder - Measures how long each test takes, including its @BeforeMethod and
+ * @AfterMethod work, and writes the numbers of each fork to its own file under
+ * shard.durations.output.dir.
+ *
+ * The durations file ShardPlanner reads is never written during a run, so every fork plans
+ * from the same input. Once all forks are done, merge the outputs into it:
+ *   java -cp &lt;test classpath&gt; listeners.DurationRecorder
+ * Older values are smoothed with the new ones so a single slow run does not reshuffle the shards.
+ */
+public class DurationRecorder implements IInvokedMethodListener, ISuiteListener {
+    private final Map<String, Long> measured = new ConcurrentHashMap<>();
+    private final ThreadLocal<Long> pendingSetup = ThreadLocal.withInitial(() -> 0L);
+    private final ThreadLocal<String> lastTest = new ThreadLocal<>();
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult result) {
+        long elapsed = Math.max(0, result.getEndMillis() - result.getStartMillis());
+        ITestNGMethod testMethod = method.getTestMethod();
+
+        if (method.isTestMethod()) {
+            if (result.getStatus() == ITestResult.SKIP) {
+                // A skipped test says nothing about how long it takes
+                pendingSetup.set(0L);
+                return;
+            }
+            String test = testMethod.getQualifiedName();
+            measured.merge(test, pendingSetup.get() + elapsed, Long::sum);
+            pendingSetup.set(0L);
+            lastTest.set(test);
+        } else if (testMethod.isBeforeMethodConfiguration()) {
+            pendingSetup.set(pendingSetup.get() + elapsed);
+        } else if (testMethod.isAfterMethodConfiguration() && lastTest.get() != null) {
+            measured.merge(lastTest.get(), elapsed, Long::sum);
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (measured.isEmpty()) {
+            return;
+        }
+
+        // Each fork writes its own file; the durations file the planner reads stays untouched
+        Path dir = outputDir();
+        synchronized (DurationRecorder.class) {
+            try {
+                Files.createDirectories(dir);
+                Path file = dir.resolve("durations-" + ConfigReader.getIntProperty("shard.index", 0)
+                        + "-" + ProcessHandle.current().pid() + "-" + System.nanoTime() + ".properties");
+                write(file, new TreeMap<>(measured), "Durations of one fork in milliseconds, written by listeners.DurationRecorder");
+                System.out.println("[SHARD] Recorded durations of " + measured.size() + " tests in " + file);
+                measured.clear();
+            } catch (IOException e) {
+                System.out.println("[SHARD] Could not write durations to " + dir + ": " + e.getMessage());
+            }
+        }
+    }
+
+    static Path outputDir() {
+        return Paths.get(ConfigReader.getProperty("shard.durations.output.dir", "target/durations"));
+    }
+
+    /**
+     * Folds the fork outputs into the durations file and deletes them. Run it once all forks
+     * are done; a test measured by several forks counts with its average.
+     */
+    public static Map<String, Long> merge() throws IOException {
+        Map<String, Long> sums = new TreeMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+        List<Path> outputs = new ArrayList<>();
+        Path dir = outputDir();
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "durations-*.properties")) {
+                for (Path file : files) {
+                    outputs.add(file);
+                    for (Map.Entry<String, Long> entry : ShardPlanner.readDurations(file).entrySet()) {
+                        sums.merge(entry.getKey(), entry.getValue(), Long::sum);
+                        counts.merge(entry.getKey(), 1, Integer::sum);
+                    }
+                }
+            }
+        }
+
+        Map<String, Long> durations = ShardPlanner.readDurations();
+        if (outputs.isEmpty()) {
+            return durations;
+        }
+        for (Map.Entry<String, Long> entry : sums.entrySet()) {
+            long latest = entry.getValue() / counts.get(entry.getKey());
+            durations.merge(entry.getKey(), latest, (previous, current) -> (previous + current) / 2);
+        }
+        write(ShardPlanner.durationsFile(), durations, "Test durations in milliseconds, merged by listeners.DurationRecorder");
+        for (Path output : outputs) {
+            Files.delete(output);
+        }
+        System.out.println("[SHARD] Merged " + outputs.size() + " fork outputs into " + ShardPlanner.durationsFile()
+                + " (" + durations.size() + " tests)");
+        return durations;
+    }
+
+    private static void write(Path file, Map<String, Long> durations, String comment) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "test-durations", ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write("# " + comment + "\n");
+            for (Map.Entry<String, Long> entry : durations.entrySet()) {
+                writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+            }
+        }
+        // Readers must never see a half-written file
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static void main(String[] args) throws IOException {
+        merge();
+    }
+}
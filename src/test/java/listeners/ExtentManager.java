@@ -1,10 +1,14 @@
 package listeners;
 
 import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
 import com.aventstack.extentreports.reporter.ExtentSparkReporter;
 import com.aventstack.extentreports.reporter.configuration.Theme;
 
+import utils.HarnessExecutors;
+
 import java.text.SimpleDateFormat;
+import java.time.Duration;
 import java.util.Date;
 
 /**
@@ -13,13 +17,21 @@ import java.util.Date;
 public class ExtentManager {
     private static ExtentReports extent;
 
-    public static ExtentReports getInstance() {
+    public static synchronized ExtentReports getInstance() {
         if (extent == null) {
             createInstance();
         }
         return extent;
     }
 
+    /**
+     * Creates a report entry; ExtentReports keeps tests in a shared list, so parallel
+     * tests must not create entries concurrently.
+     */
+    public static synchronized ExtentTest createTest(String name) {
+        return getInstance().createTest(name);
+    }
+
     private static ExtentReports createInstance() {
         String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
         String reportPath = "test-output/ExtentReport_" + timestamp + ".html";
@@ -40,7 +52,11 @@ public class ExtentManager {
         return extent;
     }
 
-    public static void flush() {
+    /**
+     * Writes the report once the screenshots it links to are on disk.
+     */
+    public static synchronized void flush() {
+        HarnessExecutors.awaitBackground(Duration.ofSeconds(30));
         if (extent != null) {
             extent.flush();
         }
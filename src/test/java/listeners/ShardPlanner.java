@@ -0,0 +1,356 @@
+package listeners;
+
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import org.testng.xml.internal.Parser;
+import utils.ConfigReader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * ShardPlanner - Splits the suite into balanced shards from the durations recorded by
+ * DurationRecorder, one shard per surefire fork or CI node.
+ *
+ * Tests chained with dependsOnMethods form one unit that is never split. Units are packed
+ * longest-first onto the least loaded shard (LPT), so the run takes about as long as the
+ * biggest shard. Every fork computes the same plan from the same durations file, which
+ * is only read during a run (see DurationRecorder).
+ *
+ * Preview the plan and write one suite file per shard to target/shards:
+ *   java -cp &lt;test classpath&gt; listeners.ShardPlanner [shards] [suite xml]
+ */
+public class ShardPlanner {
+
+    public static final class Shard {
+        private final int index;
+        private final List<String> tests = new ArrayList<>();
+        private long estimatedMillis;
+
+        private Shard(int index) {
+            this.index = index;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public List<String> getTests() {
+            return tests;
+        }
+
+        public long getEstimatedMillis() {
+            return estimatedMillis;
+        }
+    }
+
+    /**
+     * Plans the shards.
+     *
+     * @param tests      qualified test names in suite order, each with the qualified names it depends on
+     * @param durations  past duration per qualified test name; tests without one get the median
+     * @param shardCount number of shards to build
+     */
+    public static List<Shard> plan(Map<String, List<String>> tests, Map<String, Long> durations, int shardCount) {
+        // Union every test with the tests it depends on
+        Map<String, String> parent = new HashMap<>();
+        for (String test : tests.keySet()) {
+            parent.put(test, test);
+        }
+        for (Map.Entry<String, List<String>> entry : tests.entrySet()) {
+            for (String dependency : entry.getValue()) {
+                if (parent.containsKey(dependency)) {
+                    parent.put(find(parent, entry.getKey()), find(parent, dependency));
+                }
+            }
+        }
+
+        Map<String, List<String>> units = new LinkedHashMap<>();
+        for (String test : tests.keySet()) {
+            units.computeIfAbsent(find(parent, test), root -> new ArrayList<>()).add(test);
+        }
+
+        long fallback = fallbackDuration(tests.keySet(), durations);
+        Map<List<String>, Long> unitCosts = new HashMap<>();
+        for (List<String> unit : units.values()) {
+            long cost = 0;
+            for (String test : unit) {
+                cost += durations.getOrDefault(test, fallback);
+            }
+            unitCosts.put(unit, cost);
+        }
+
+        // Longest unit first; ties broken by name so every fork builds the same plan
+        List<List<String>> ordered = new ArrayList<>(units.values());
+        ordered.sort(Comparator.<List<String>>comparingLong(unitCosts::get).reversed()
+                .thenComparing(unit -> unit.get(0)));
+
+        List<Shard> shards = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new Shard(i));
+        }
+        for (List<String> unit : ordered) {
+            Shard lightest = shards.get(0);
+            for (Shard shard : shards) {
+                if (shard.estimatedMillis < lightest.estimatedMillis) {
+                    lightest = shard;
+                }
+            }
+            lightest.tests.addAll(unit);
+            lightest.estimatedMillis += unitCosts.get(unit);
+        }
+        return shards;
+    }
+
+    /**
+     * Restricts the suites to the tests of one shard, dropping classes and test blocks
+     * that end up empty. Does nothing when shardCount is 1 or less; fails when the shard
+     * gets no tests at all.
+     */
+    public static Shard applyShard(List<XmlSuite> suites, int shardIndex, int shardCount) {
+        if (shardCount <= 1) {
+            return null;
+        }
+        if (shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException("shard.index must be between 0 and " + (shardCount - 1) + ", was " + shardIndex);
+        }
+
+        Shard shard = plan(collectTests(suites), readDurations(), shardCount).get(shardIndex);
+        restrict(suites, shard, shardCount);
+        return shard;
+    }
+
+    private static void restrict(List<XmlSuite> suites, Shard shard, int shardCount) {
+        if (shard.getTests().isEmpty()) {
+            // An empty suite would pass without running anything
+            throw new IllegalStateException("Shard " + shard.getIndex() + " of " + shardCount + " has no tests: shard.count is larger"
+                    + " than the number of test units (tests chained with dependsOnMethods count as one)");
+        }
+        Set<String> selected = new HashSet<>(shard.getTests());
+
+        for (XmlSuite suite : suites) {
+            Iterator<XmlTest> xmlTests = suite.getTests().iterator();
+            while (xmlTests.hasNext()) {
+                XmlTest xmlTest = xmlTests.next();
+                Iterator<XmlClass> xmlClasses = xmlTest.getXmlClasses().iterator();
+                while (xmlClasses.hasNext()) {
+                    XmlClass xmlClass = xmlClasses.next();
+                    List<XmlInclude> includes = new ArrayList<>();
+                    for (String method : testMethods(xmlClass)) {
+                        if (selected.contains(xmlClass.getName() + "." + method)) {
+                            includes.add(new XmlInclude(method));
+                        }
+                    }
+                    if (includes.isEmpty()) {
+                        xmlClasses.remove();
+                    } else {
+                        xmlClass.setIncludedMethods(includes);
+                    }
+                }
+                if (xmlTest.getXmlClasses().isEmpty()) {
+                    xmlTests.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects every enabled test method of the suites with its dependsOnMethods targets,
+     * resolved to qualified names.
+     */
+    public static Map<String, List<String>> collectTests(List<XmlSuite> suites) {
+        Map<String, List<String>> tests = new LinkedHashMap<>();
+        for (XmlSuite suite : suites) {
+            for (XmlTest xmlTest : suite.getTests()) {
+                for (XmlClass xmlClass : xmlTest.getXmlClasses()) {
+                    for (String method : testMethods(xmlClass)) {
+                        tests.putIfAbsent(xmlClass.getName() + "." + method, new ArrayList<>());
+                    }
+                }
+            }
+        }
+
+        for (Map.Entry<String, List<String>> entry : tests.entrySet()) {
+            String test = entry.getKey();
+            String className = test.substring(0, test.lastIndexOf('.'));
+            Test annotation = findTestAnnotation(test);
+            if (annotation == null) {
+                continue;
+            }
+            for (String dependency : annotation.dependsOnMethods()) {
+                String pattern = dependency.contains(".") ? dependency : className + "." + dependency;
+                for (String candidate : tests.keySet()) {
+                    if (candidate.equals(pattern) || candidate.matches(pattern)) {
+                        entry.getValue().add(candidate);
+                    }
+                }
+            }
+        }
+        return tests;
+    }
+
+    private static List<String> testMethods(XmlClass xmlClass) {
+        Set<String> included = new HashSet<>();
+        for (XmlInclude include : xmlClass.getIncludedMethods()) {
+            included.add(include.getName());
+        }
+
+        List<String> methods = new ArrayList<>();
+        for (Method method : xmlClass.getSupportClass().getMethods()) {
+            Test annotation = method.getAnnotation(Test.class);
+            if (annotation == null || !annotation.enabled()) {
+                continue;
+            }
+            String name = method.getName();
+            if ((included.isEmpty() || included.contains(name)) && !isExcluded(xmlClass, name) && !methods.contains(name)) {
+                methods.add(name);
+            }
+        }
+        methods.sort(null);
+        return methods;
+    }
+
+    private static boolean isExcluded(XmlClass xmlClass, String method) {
+        for (String excluded : xmlClass.getExcludedMethods()) {
+            if (method.equals(excluded) || method.matches(excluded)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Test findTestAnnotation(String qualifiedName) {
+        int dot = qualifiedName.lastIndexOf('.');
+        try {
+            Class<?> testClass = Class.forName(qualifiedName.substring(0, dot));
+            String methodName = qualifiedName.substring(dot + 1);
+            return Arrays.stream(testClass.getMethods())
+                    .filter(method -> method.getName().equals(methodName) && method.isAnnotationPresent(Test.class))
+                    .map(method -> method.getAnnotation(Test.class))
+                    .findFirst()
+                    .orElse(null);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static long fallbackDuration(Set<String> tests, Map<String, Long> durations) {
+        List<Long> known = new ArrayList<>();
+        for (String test : tests) {
+            if (durations.containsKey(test)) {
+                known.add(durations.get(test));
+            }
+        }
+        if (known.isEmpty()) {
+            return ConfigReader.getLongProperty("shard.default.duration.seconds", 30) * 1000;
+        }
+        known.sort(null);
+        return known.get(known.size() / 2);
+    }
+
+    private static String find(Map<String, String> parent, String test) {
+        String root = test;
+        while (!parent.get(root).equals(root)) {
+            root = parent.get(root);
+        }
+        parent.put(test, root);
+        return root;
+    }
+
+    static Path durationsFile() {
+        return Paths.get(ConfigReader.getProperty("shard.durations.file", "test-durations.properties"));
+    }
+
+    /**
+     * Reads the recorded durations (milliseconds per qualified test name). Missing file means no history.
+     */
+    static Map<String, Long> readDurations() {
+        return readDurations(durationsFile());
+    }
+
+    static Map<String, Long> readDurations(Path file) {
+        Map<String, Long> durations = new TreeMap<>();
+        if (!Files.exists(file)) {
+            return durations;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            System.out.println("[SHARD] Could not read " + file + ": " + e.getMessage());
+            return durations;
+        }
+        for (String key : properties.stringPropertyNames()) {
+            try {
+                durations.put(key, Long.parseLong(properties.getProperty(key).trim()));
+            } catch (NumberFormatException e) {
+                // Ignore hand-edited garbage
+            }
+        }
+        return durations;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int shardCount = args.length > 0 ? Integer.parseInt(args[0]) : ConfigReader.getIntProperty("shard.count", 2);
+        String suiteFile = args.length > 1 ? args[1] : "src/test/resources/testng.xml";
+
+        List<XmlSuite> suites = new Parser(suiteFile).parseToList();
+        List<Shard> shards = plan(collectTests(suites), readDurations(), shardCount);
+        Path outputDir = Files.createDirectories(Paths.get("target", "shards"));
+
+        // restrict() edits the suites in place: remember the full suites to start every shard from
+        Map<XmlSuite, List<XmlTest>> allTests = new HashMap<>();
+        Map<XmlTest, List<XmlClass>> allClasses = new HashMap<>();
+        Map<XmlClass, List<XmlInclude>> allIncludes = new HashMap<>();
+        for (XmlSuite suite : suites) {
+            allTests.put(suite, new ArrayList<>(suite.getTests()));
+            for (XmlTest xmlTest : suite.getTests()) {
+                allClasses.put(xmlTest, new ArrayList<>(xmlTest.getXmlClasses()));
+                for (XmlClass xmlClass : xmlTest.getXmlClasses()) {
+                    allIncludes.put(xmlClass, new ArrayList<>(xmlClass.getIncludedMethods()));
+                }
+            }
+        }
+
+        for (Shard shard : shards) {
+            System.out.println("[SHARD] Shard " + shard.getIndex() + " ~" + (shard.getEstimatedMillis() / 1000) + "s: " + shard.getTests());
+
+            for (XmlSuite suite : suites) {
+                suite.setTests(new ArrayList<>(allTests.get(suite)));
+                for (XmlTest xmlTest : suite.getTests()) {
+                    xmlTest.setXmlClasses(new ArrayList<>(allClasses.get(xmlTest)));
+                    for (XmlClass xmlClass : xmlTest.getXmlClasses()) {
+                        xmlClass.setIncludedMethods(new ArrayList<>(allIncludes.get(xmlClass)));
+                    }
+                }
+            }
+            restrict(suites, shard, shardCount);
+            Path output = outputDir.resolve("shard-" + shard.getIndex() + ".xml");
+            try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+                writer.write(suites.get(0).toXml());
+            }
+        }
+        System.out.println("[SHARD] Suite files written to " + outputDir.toAbsolutePath());
+    }
+}
@@ -0,0 +1,94 @@
+package listeners;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ShardPlannerTest - Unit tests for ShardPlanner, no browser needed.
+ */
+public class ShardPlannerTest {
+
+    private static Map<String, List<String>> independent(String... tests) {
+        Map<String, List<String>> map = new LinkedHashMap<>();
+        for (String test : tests) {
+            map.put(test, Collections.emptyList());
+        }
+        return map;
+    }
+
+    private static Map<String, Long> durations(Object... pairs) {
+        Map<String, Long> map = new HashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            map.put((String) pairs[i], ((Number) pairs[i + 1]).longValue());
+        }
+        return map;
+    }
+
+    @Test(description = "LPT puts the longest tests on separate shards and balances the rest")
+    public void testPlanBalancesLongestFirst() {
+        List<ShardPlanner.Shard> shards = ShardPlanner.plan(independent("a", "b", "c", "d", "e"),
+                durations("a", 7000, "b", 6000, "c", 5000, "d", 4000, "e", 3000), 2);
+
+        Assert.assertEquals(shards.size(), 2);
+        // 7 -> s0, 6 -> s1, 5 -> s1 (11), 4 -> s0 (11), 3 -> s0 (14)
+        Assert.assertEquals(shards.get(0).getTests(), Arrays.asList("a", "d", "e"));
+        Assert.assertEquals(shards.get(1).getTests(), Arrays.asList("b", "c"));
+        Assert.assertEquals(shards.get(0).getEstimatedMillis(), 14000);
+        Assert.assertEquals(shards.get(1).getEstimatedMillis(), 11000);
+    }
+
+    @Test(description = "Tests chained with dependsOnMethods stay on one shard")
+    public void testPlanKeepsDependencyChainsTogether() {
+        Map<String, List<String>> tests = independent("login", "other");
+        tests.put("checkout", Collections.singletonList("addToCart"));
+        tests.put("addToCart", Collections.singletonList("login"));
+
+        List<ShardPlanner.Shard> shards = ShardPlanner.plan(tests,
+                durations("login", 1000, "addToCart", 1000, "checkout", 1000, "other", 5000), 2);
+
+        ShardPlanner.Shard chain = shards.get(0).getTests().contains("login") ? shards.get(0) : shards.get(1);
+        Assert.assertTrue(chain.getTests().containsAll(Arrays.asList("login", "addToCart", "checkout")),
+                "Chain was split: " + chain.getTests());
+        Assert.assertEquals(chain.getEstimatedMillis(), 3000, "A chain costs the sum of its tests");
+    }
+
+    @Test(description = "Tests without history count as the median of the known durations")
+    public void testPlanUsesMedianForUnknownTests() {
+        List<ShardPlanner.Shard> shards = ShardPlanner.plan(independent("a", "b", "c", "new"),
+                durations("a", 1000, "b", 2000, "c", 9000), 1);
+
+        Assert.assertEquals(shards.get(0).getEstimatedMillis(), 1000 + 2000 + 9000 + 2000);
+    }
+
+    @Test(description = "More shards than tests leaves the extra shards empty")
+    public void testPlanWithMoreShardsThanTests() {
+        List<ShardPlanner.Shard> shards = ShardPlanner.plan(independent("a", "b"), durations("a", 1000, "b", 2000), 4);
+
+        Assert.assertEquals(shards.size(), 4);
+        Assert.assertEquals(shards.get(0).getTests(), Collections.singletonList("b"));
+        Assert.assertEquals(shards.get(1).getTests(), Collections.singletonList("a"));
+        Assert.assertTrue(shards.get(2).getTests().isEmpty());
+        Assert.assertTrue(shards.get(3).getTests().isEmpty());
+    }
+
+    @Test(description = "An empty shard fails instead of running an empty suite")
+    public void testApplyShardRejectsEmptyShard() {
+        XmlSuite suite = new XmlSuite();
+        XmlTest xmlTest = new XmlTest(suite);
+        xmlTest.setXmlClasses(Collections.singletonList(new XmlClass(ShardPlannerTest.class.getName())));
+        int testCount = ShardPlanner.collectTests(Collections.singletonList(suite)).size();
+
+        Assert.assertThrows(IllegalStateException.class,
+                () -> ShardPlanner.applyShard(Collections.singletonList(suite), testCount, testCount + 1));
+    }
+}
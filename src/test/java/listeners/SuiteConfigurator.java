@@ -0,0 +1,42 @@
+package listeners;
+
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+import utils.ConfigReader;
+
+import java.util.List;
+
+/**
+ * SuiteConfigurator - Applies the parallel mode and thread count from config.properties
+ * (or -Dparallel.mode / -Dthread.count) to the suites before TestNG runs them, when they
+ * are set; otherwise the suite file's own settings stay. Keeps only this fork's shard when
+ * -Dshard.count / -Dshard.index are set.
+ */
+public class SuiteConfigurator implements IAlterSuiteListener {
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        // Only settings given explicitly override the suite's own; otherwise testng.xml decides
+        String mode = ConfigReader.getProperty("parallel.mode", null);
+        String threads = ConfigReader.getProperty("thread.count", null);
+        for (XmlSuite suite : suites) {
+            if (mode != null) {
+                suite.setParallel(XmlSuite.ParallelMode.getValidParallel(mode.toLowerCase()));
+            }
+            if (threads != null) {
+                suite.setThreadCount(Integer.parseInt(threads));
+            }
+            System.out.println("[SUITE] " + suite.getName() + ": parallel=" + suite.getParallel()
+                    + ", threads=" + suite.getThreadCount()
+                    + (mode == null && threads == null ? " (from the suite file)" : ""));
+        }
+
+        int shardCount = ConfigReader.getIntProperty("shard.count", 1);
+        int shardIndex = ConfigReader.getIntProperty("shard.index", 0);
+        ShardPlanner.Shard shard = ShardPlanner.applyShard(suites, shardIndex, shardCount);
+        if (shard != null) {
+            System.out.println("[SHARD] Running shard " + shardIndex + " of " + shardCount
+                    + " (~" + (shard.getEstimatedMillis() / 1000) + "s): " + shard.getTests());
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package listeners;
 
 import com.aventstack.extentreports.Status;
+import org.openqa.selenium.WebDriver;
 import org.testng.ITestContext;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
 import tests.BaseTest;
+import utils.DriverManager;
 import utils.ScreenshotUtil;
 
 /**
@@ -28,9 +30,11 @@ public class TestListener implements ITestListener {
 
     @Override
     public void onTestFailure(ITestResult result) {
-        if (BaseTest.getDriver() != null) {
+        // Only screenshot a session this thread already has; never launch a browser for it
+        WebDriver driver = DriverManager.getCurrentDriver();
+        if (driver != null) {
             String screenshotPath = ScreenshotUtil.captureScreenshot(
-                BaseTest.getDriver(),
+                driver,
                 result.getName()
             );
 
@@ -0,0 +1,43 @@
+package pages;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * PricesTest - Unit tests for the price text to cents conversion.
+ */
+public class PricesTest {
+
+    @Test(description = "Shop price texts parse to exact cents")
+    public void testParseCents() {
+        Assert.assertEquals(Prices.parseCents("$1,234.50"), 123450);
+        Assert.assertEquals(Prices.parseCents("$1,234.5"), 123450);
+        Assert.assertEquals(Prices.parseCents(" $99.99 "), 9999);
+        Assert.assertEquals(Prices.parseCents("$0.00"), 0);
+        Assert.assertEquals(Prices.parseCents("$140"), 14000);
+    }
+
+    @Test(description = "Missing or unreadable price texts give NONE")
+    public void testParseCentsWithoutPrice() {
+        Assert.assertEquals(Prices.parseCents(null), Prices.NONE);
+        Assert.assertEquals(Prices.parseCents(""), Prices.NONE);
+        Assert.assertEquals(Prices.parseCents("  $ "), Prices.NONE);
+        Assert.assertEquals(Prices.parseCents("garbage"), Prices.NONE);
+        Assert.assertEquals(Prices.parseCents("$12.34.56"), Prices.NONE);
+    }
+
+    @Test(description = "Dollar limits convert to cents without floating point error")
+    public void testToCents() {
+        Assert.assertEquals(Prices.toCents(99.99), 9999);
+        Assert.assertEquals(Prices.toCents(0.1 + 0.2), 30);
+        Assert.assertEquals(Prices.toCents(0.0), 0);
+    }
+
+    @Test(description = "Cents format back to a price text")
+    public void testFormat() {
+        Assert.assertEquals(Prices.format(123450), "$1234.50");
+        Assert.assertEquals(Prices.format(5), "$0.05");
+        Assert.assertEquals(Prices.format(-250), "-$2.50");
+        Assert.assertEquals(Prices.format(Prices.NONE), "n/a");
+    }
+}
@@ -0,0 +1,122 @@
+package pages;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ProductGridTest - Unit tests for the whole-grid checks of ProductGrid, built from
+ * hand-made snapshot rows instead of a browser.
+ */
+public class ProductGridTest {
+
+    @SafeVarargs
+    private static Map<String, Object> card(String name, String price, Map<String, Object>... swatches) {
+        Map<String, Object> card = new HashMap<>();
+        card.put("name", name);
+        card.put("regularPrice", price);
+        card.put("priceCount", price == null ? 0 : 1);
+        List<Map<String, Object>> swatchList = new ArrayList<>();
+        for (Map<String, Object> swatch : swatches) {
+            swatchList.add(swatch);
+        }
+        card.put("swatches", swatchList);
+        card.put("styles", Collections.emptyMap());
+        return card;
+    }
+
+    private static Map<String, Object> swatch(String label, boolean selected, boolean filterMatch) {
+        Map<String, Object> swatch = new HashMap<>();
+        swatch.put("label", label);
+        swatch.put("selected", selected);
+        swatch.put("filterMatch", filterMatch);
+        return swatch;
+    }
+
+    @SafeVarargs
+    private static ProductGrid grid(Map<String, Object>... cards) {
+        List<ProductCard> list = new ArrayList<>();
+        for (int i = 0; i < cards.length; i++) {
+            list.add(new ProductCard(i, cards[i]));
+        }
+        return ProductGrid.of(list);
+    }
+
+    private static ProductGrid prices(String... prices) {
+        List<ProductCard> list = new ArrayList<>();
+        for (int i = 0; i < prices.length; i++) {
+            list.add(new ProductCard(i, card("Product " + i, prices[i])));
+        }
+        return ProductGrid.of(list);
+    }
+
+    @Test(description = "Sort order skips products without a price")
+    public void testFirstUnsortedIndexSkipsMissingPrices() {
+        Assert.assertEquals(prices("$10.00", null, "$20.00", "$20.00").firstUnsortedIndex(), -1);
+        Assert.assertEquals(prices(null, "$10.00", null, "$5.00").firstUnsortedIndex(), 3);
+        Assert.assertEquals(prices(null, null).firstUnsortedIndex(), -1);
+        Assert.assertTrue(prices().isSortedAscending());
+    }
+
+    @Test(description = "Range check allows one cent either side and counts a missing price as $0.00")
+    public void testIndexOutside() {
+        Assert.assertEquals(prices("$0.00", "$99.99", "$45.50").indexOutside(0.00, 99.99), -1);
+        Assert.assertEquals(prices("$99.99", "$100.00", "$100.01").indexOutside(0.00, 99.99), 2);
+        Assert.assertEquals(prices("$10.00", "$9.99").indexOutside(10.00, 20.00), -1);
+        Assert.assertEquals(prices("$10.00", "$9.98").indexOutside(10.00, 20.00), 1);
+        Assert.assertEquals(prices("$10.00", null).indexOutside(0.00, 99.99), -1);
+        Assert.assertEquals(prices("$15.00", null).indexOutside(10.00, 20.00), 1);
+    }
+
+    @Test(description = "Cheapest product ignores products without a price")
+    public void testArgmin() {
+        Assert.assertEquals(prices(null, "$3.00", "$1.00", "$1.00").argmin(), 2);
+        Assert.assertEquals(prices(null, null).argmin(), -1);
+        Assert.assertEquals(prices().argmin(), -1);
+    }
+
+    @Test(description = "Any colour swatch counts, marked as filter match or selected or not")
+    public void testCountMatchingSwatch() {
+        ProductGrid grid = grid(
+                card("Filter match", "$1.00", swatch("Charcoal", false, true)),
+                card("Selected", "$1.00", swatch("Charcoal", true, false)),
+                card("Labelled", "$1.00", swatch("Blue", false, false), swatch("Jet BLACK", false, false)),
+                card("Other colours only", "$1.00", swatch("Blue", false, false), swatch("White", false, false)),
+                card("No swatches", "$1.00"));
+
+        Assert.assertEquals(grid.countMatchingSwatch("Black"), 4);
+        Assert.assertEquals(grid.indexWithoutSwatch("Black"), 4);
+    }
+
+    @Test(description = "Products without swatches do not shift the swatches of the next products")
+    public void testSwatchOffsetsWithEmptyProducts() {
+        ProductGrid grid = grid(
+                card("No swatches", "$1.00"),
+                card("Black", "$1.00", swatch("Black", false, false)),
+                card("Also none", "$1.00"),
+                card("Blue", "$1.00", swatch("Blue", false, false), swatch("Navy", false, false)),
+                card("None at the end", "$1.00"));
+
+        Assert.assertEquals(grid.countMatchingSwatch("Black"), 2);
+        Assert.assertEquals(grid.indexWithoutSwatch("Black"), 0);
+        Assert.assertEquals(grid(card("Black", "$1.00", swatch("Black", false, false)), card("None", "$1.00"))
+                .indexWithoutSwatch("Black"), 1);
+        Assert.assertEquals(grid(card("Only one", "$1.00")).indexWithoutSwatch("Black"), 0);
+        Assert.assertEquals(grid().indexWithoutSwatch("Black"), -1);
+    }
+
+    @Test(description = "Name lookups ignore case")
+    public void testIndexOfName() {
+        ProductGrid grid = grid(card("Linen Blazer", "$455.00"), card("Elizabeth Knit Top", "$210.00"));
+
+        Assert.assertEquals(grid.indexOfName("linen blazer"), 0);
+        Assert.assertEquals(grid.indexOfName("Elizabeth Knit Top"), 1);
+        Assert.assertEquals(grid.indexOfName("Missing"), -1);
+        Assert.assertEquals(grid.indexOfName(null), -1);
+    }
+}
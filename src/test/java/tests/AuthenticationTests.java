@@ -11,8 +11,9 @@ import pages.RegisterPage;
  */
 public class AuthenticationTests extends BaseTest {
 
-    private static String testEmail;
-    private static String testPassword;
+    // Shared with testSignIn, which may run on another thread when the suite is parallel
+    private static volatile String testEmail;
+    private static volatile String testPassword;
 
     /**
      * Test 1: Create an Account
@@ -29,8 +30,8 @@ public class AuthenticationTests extends BaseTest {
         System.out.println("\nTEST 1 STARTED: Create an Account");
         System.out.println("Description: Register a new user account\n");
 
-        HomePage homePage = new HomePage(driver);
-        RegisterPage registerPage = new RegisterPage(driver);
+        HomePage homePage = page(HomePage.class);
+        RegisterPage registerPage = page(RegisterPage.class);
 
         // Step 1: Navigate to homepage
         homePage.navigateToHomePage();
@@ -80,8 +81,8 @@ public class AuthenticationTests extends BaseTest {
         System.out.println("\nTEST 2 STARTED: Sign In");
         System.out.println("Description: Login with existing credentials\n");
 
-        HomePage homePage = new HomePage(driver);
-        LoginPage loginPage = new LoginPage(driver);
+        HomePage homePage = page(HomePage.class);
+        LoginPage loginPage = page(LoginPage.class);
 
         // Use credentials from Test 1 if available, otherwise use config properties
         String emailToUse = (testEmail != null && !testEmail.isEmpty()) ? testEmail : utils.ConfigReader.getTestEmail();
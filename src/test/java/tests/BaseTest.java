@@ -1,60 +1,87 @@
 package tests;
 
-import com.aventstack.extentreports.ExtentReports;
 import com.aventstack.extentreports.ExtentTest;
 import listeners.ExtentManager;
 import org.openqa.selenium.WebDriver;
+import pages.BasePage;
+import pages.PageRegistry;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
 import org.testng.annotations.*;
+import utils.AdaptiveWait;
 import utils.ConfigReader;
 import utils.DriverManager;
+import utils.HarnessExecutors;
+import utils.ImplicitWaitMonitor;
+import utils.LocatorRanking;
+import utils.NetworkMonitor;
+import utils.RenderProfile;
+import utils.TimeoutProfile;
+import utils.WaitStats;
+
+import java.util.Arrays;
 
 // Klasa bazë për të gjitha testet
 @Listeners(listeners.TestListener.class)
 public class BaseTest {
-    protected WebDriver driver;
-    private static ExtentReports extent;
     private static ThreadLocal<ExtentTest> extentTest = new ThreadLocal<>();
+    private static ThreadLocal<Boolean> sessionAdopted = ThreadLocal.withInitial(() -> false);
 
     @BeforeSuite
     public void setupSuite() {
-        extent = ExtentManager.getInstance();
+        ExtentManager.getInstance();
+        ConfigReader.calibrateTimeouts();
+        DriverManager.warmUp();
     }
 
     @BeforeMethod
-    public void setup(java.lang.reflect.Method method) {
+    public void setup(java.lang.reflect.Method method, ITestResult result) {
         String testName = method.getName();
         System.out.println("\n[SETUP] Starting setup for: " + testName);
         long setupStartTime = System.currentTimeMillis();
 
-        // For Test 7 and Test 8, don't create a new driver - reuse existing session
-        if (testName.equals("testShoppingCart") || testName.equals("testEmptyShoppingCart")) {
+        // Tests that depend on another test continue in the session that test left behind
+        boolean adopted = false;
+        for (String dependency : result.getMethod().getMethodsDependedUpon()) {
+            if (DriverManager.adoptParkedDriver(dependency)) {
+                adopted = true;
+                break;
+            }
+        }
+        sessionAdopted.set(adopted);
+
+        if (adopted) {
             System.out.println("Reusing existing driver session for " + testName);
-            // Driver already exists from previous test, just get reference
-            driver = DriverManager.getDriver();
         } else {
-            // Create new driver for all other tests
-            driver = DriverManager.getDriver();
+            // Get a driver for all other tests (fresh or leased from the pool)
+            WebDriver driver = DriverManager.getDriver();
+
+            // Block images/fonts/tags unless the test checks visual styling
+            RenderProfile renderProfile = method.isAnnotationPresent(FullRendering.class)
+                    ? RenderProfile.FULL : RenderProfile.fromConfig();
+            NetworkMonitor.applyRenderProfile(driver, renderProfile);
 
             // Use JavaScript navigation as workaround for Chrome 143 renderer timeout
             String baseUrl = ConfigReader.getBaseUrl();
             org.openqa.selenium.JavascriptExecutor js = (org.openqa.selenium.JavascriptExecutor) driver;
 
             // Set page load timeout
-            driver.manage().timeouts().pageLoadTimeout(java.time.Duration.ofSeconds(20));
+            TimeoutProfile timeouts = ConfigReader.getTimeouts();
+            driver.manage().timeouts().pageLoadTimeout(timeouts.getSetupPageLoadTimeout());
 
             // Use JavaScript to navigate - this bypasses some renderer issues
             js.executeScript("window.location.href = arguments[0];", baseUrl);
 
             // Wait for page to be ready using JavaScript
             try {
-                new org.openqa.selenium.support.ui.WebDriverWait(driver, java.time.Duration.ofSeconds(10))
-                    .until(d -> js.executeScript("return document.readyState").equals("complete"));
+                new AdaptiveWait(driver, timeouts.getSetupReadyTimeout())
+                    .until("setup.readyState", d -> js.executeScript("return document.readyState").equals("complete"));
             } catch (Exception e) {
                 // Page load wait timed out, but continue anyway
             }
         }
 
-        ExtentTest test = extent.createTest(this.getClass().getSimpleName());
+        ExtentTest test = ExtentManager.createTest(this.getClass().getSimpleName() + " - " + testName);
         extentTest.set(test);
 
         long setupEndTime = System.currentTimeMillis();
@@ -63,28 +90,98 @@ public class BaseTest {
     }
 
     @AfterMethod
-    public void tearDown(java.lang.reflect.Method method) {
+    public void tearDown(java.lang.reflect.Method method, ITestResult result) {
         String testName = method.getName();
+        logRenderStats(testName);
+        logStallStats(testName);
 
-        // Don't quit driver after Test 6 or Test 7 to preserve session
-        if (testName.equals("testCheckSorting") || testName.equals("testShoppingCart")) {
+        // Keep the session for the tests that depend on this one
+        if (isDependedUpon(result)) {
             System.out.println("Preserving driver session after " + testName);
+            DriverManager.parkDriver(result.getMethod().getQualifiedName());
             return;
         }
 
-        // Quit driver for all other tests
+        // Quit driver (or return it to the pool) for all other tests
+        PageRegistry.release(DriverManager.getCurrentDriver());
         DriverManager.quitDriver();
     }
 
+    private static boolean isDependedUpon(ITestResult result) {
+        String qualifiedName = result.getMethod().getQualifiedName();
+        for (ITestNGMethod other : result.getTestContext().getAllTestMethods()) {
+            for (String dependency : other.getMethodsDependedUpon()) {
+                if (dependency.equals(qualifiedName)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * True when the current test continues the session of a test it depends on.
+     */
+    protected static boolean isSessionAdopted() {
+        return sessionAdopted.get();
+    }
+
+    private void logRenderStats(String testName) {
+        try {
+            NetworkMonitor monitor = NetworkMonitor.of(DriverManager.getCurrentDriver());
+            String stats = monitor != null ? monitor.takeRenderStats() : null;
+            if (stats != null) {
+                System.out.println("[RENDER] " + testName + ": " + stats);
+                if (getExtentTest() != null) {
+                    getExtentTest().info("Lean rendering " + stats);
+                }
+            }
+        } catch (Exception e) {
+            // Browser already gone, nothing to report
+        }
+    }
+
+    private void logStallStats(String testName) {
+        String stalls = ImplicitWaitMonitor.takeTestReport();
+        if (stalls != null) {
+            System.out.println("[STALL] " + testName + ": " + stalls);
+            if (getExtentTest() != null) {
+                getExtentTest().info("Empty element lookups: " + stalls);
+            }
+        }
+    }
+
     @AfterSuite
     public void tearDownSuite() {
-        ExtentManager.flush();
+        ImplicitWaitMonitor.printSuiteReport();
+        WaitStats.printReport();
+        WaitStats.writeJson();
+        LocatorRanking.save();
+        PageRegistry.releaseAll();
+
+        // Closing the browsers and writing the report do not depend on each other
+        HarnessExecutors.invokeAll(Arrays.asList(
+                () -> {
+                    DriverManager.shutdown();
+                    return null;
+                },
+                () -> {
+                    ExtentManager.flush();
+                    return null;
+                }));
     }
 
     public static WebDriver getDriver() {
         return DriverManager.getDriver();
     }
 
+    /**
+     * The current session's instance of the page object, built once per session.
+     */
+    protected static <T extends BasePage> T page(Class<T> pageClass) {
+        return PageRegistry.of(getDriver()).get(pageClass);
+    }
+
     public static ExtentTest getExtentTest() {
         return extentTest.get();
     }
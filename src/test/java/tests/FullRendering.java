@@ -0,0 +1,15 @@
+package tests;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * FullRendering - Marks a test that checks visual styling, so it always runs with the
+ * full render profile even when config.properties selects render.profile=lean.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface FullRendering {
+}
@@ -0,0 +1,66 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+/**
+ * LocatorRankingTest - Unit tests for the order LocatorRanking tries fallback alternatives in.
+ */
+public class LocatorRankingTest {
+    private static final String CHAIN = "unitTest.order";
+
+    private static LocatorRanking.Chain<Boolean> chain(String... alternatives) {
+        LocatorRanking.Chain<Boolean> chain = LocatorRanking.chain(CHAIN);
+        for (String alternative : alternatives) {
+            if (alternative.startsWith("last:")) {
+                chain.lastResort(alternative.substring(5), () -> true);
+            } else {
+                chain.then(alternative, () -> true);
+            }
+        }
+        return chain;
+    }
+
+    private static void record(String alternative, int attempts, int successes, long millis) {
+        for (int i = 0; i < attempts; i++) {
+            LocatorRanking.record(CHAIN + "|" + alternative, i < successes, millis);
+        }
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void forgetChain() {
+        LocatorRanking.forget(CHAIN);
+    }
+
+    @Test(description = "Without history the alternatives keep their declared order")
+    public void testDeclaredOrderWithoutHistory() {
+        Assert.assertEquals(chain("a", "b", "last:c").order(), Arrays.asList(0, 1, 2));
+    }
+
+    @Test(description = "The alternative with the better success rate per millisecond goes first")
+    public void testBestAlternativeFirst() {
+        record("a", 10, 0, 10);
+        record("b", 10, 10, 10);
+
+        Assert.assertEquals(chain("a", "b").order(), Arrays.asList(1, 0));
+    }
+
+    @Test(description = "A lastResort alternative goes last even with the best score")
+    public void testLastResortAlwaysLast() {
+        record("a", 10, 1, 50);
+        record("url", 10, 10, 1);
+
+        Assert.assertEquals(chain("last:url", "a").order(), Arrays.asList(1, 0));
+    }
+
+    @Test(description = "An untried alternative ranks with the average score of the tried ones")
+    public void testUntriedAlternativeGetsAverageScore() {
+        record("bad", 10, 0, 10);
+        record("good", 10, 10, 10);
+
+        Assert.assertEquals(chain("bad", "new", "good", "last:url").order(), Arrays.asList(2, 1, 0, 3));
+    }
+}